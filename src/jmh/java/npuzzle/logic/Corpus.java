@@ -0,0 +1,46 @@
+package npuzzle.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixed boards for the benchmarks: random walks from the final state with a seeded {@link Random},
+ * so every run and every version measures the same puzzles
+ */
+final class Corpus {
+
+	private static final long SEED = 42;
+
+	private Corpus() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * @param depth - number of random moves away from the final state; the solution can be shorter
+	 */
+	static List<State> boards(int n, int depth, int count, String heuristic) {
+		Random random = new Random(SEED + n);
+		List<State> boards = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			State current = State.createFinal(n), previous = null;
+			for (int move = 0; move < depth; move++) {
+				List<State> children = current.createChildren();
+				children.remove(previous);
+				previous = current;
+				current = children.get(random.nextInt(children.size()));
+			}
+			boards.add(State.createFrom(new ArrayList<>(current.getTiles()), heuristic));
+		}
+		return boards;
+	}
+
+	/**
+	 * Builds whatever the heuristic needs, the same way {@link Npuzzle#call} does
+	 */
+	static void prepare(String heuristic, int n) {
+		Evaluator.loadTables(heuristic, n);
+	}
+
+}
@@ -0,0 +1,52 @@
+package npuzzle.logic;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+	/**
+	 * walking distance stops at 4x4 and 5x5 pattern databases take minutes to generate on the first run,
+	 * so heuristics are measured on 3x3 and 4x4
+	 */
+	@Param({"3", "4"})
+	public int n;
+
+	@Param({"manhattan", "hamming", "euclidean", "linear-conflict", "walking-distance", "pdb"})
+	public String heuristic;
+
+	private Evaluator.Heuristic evaluator;
+	private List<State> boards;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Corpus.prepare(heuristic, n);
+		evaluator = Evaluator.getHeuristic(heuristic);
+		boards = Corpus.boards(n, 40, 64, heuristic);
+	}
+
+	@Benchmark
+	public int fullEvaluation() {
+		return evaluator.evaluate(boards.get(next = (next + 1) & 63), n);
+	}
+
+	/**
+	 * creating children updates their heuristic from the parent's value
+	 */
+	@Benchmark
+	public void incrementalEvaluation(Blackhole blackhole) {
+		for (State child : boards.get(next = (next + 1) & 63).createChildren())
+			blackhole.consume(child.heuristic());
+	}
+
+}
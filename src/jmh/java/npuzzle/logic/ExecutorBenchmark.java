@@ -0,0 +1,51 @@
+package npuzzle.logic;
+
+import npuzzle.io.Output;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static npuzzle.utils.Constants.*;
+
+/**
+ * Solves the whole seeded corpus of one size per invocation
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutorBenchmark {
+
+	@Param({"3", "4", "5"})
+	public int n;
+
+	@Param({ASTAR, IDA, BIDIRECTIONAL})
+	public String algorithm;
+
+	@Param({LINEAR_CONFLICT})
+	public String heuristic;
+
+	private Executor.Algorithm executor;
+	private List<State> boards;
+
+	@Setup
+	public void setUp() {
+		Corpus.prepare(heuristic, n);
+		executor = Executor.getAlgorithm(algorithm);
+		// deep enough to matter, shallow enough for every algorithm to finish in milliseconds
+		boards = Corpus.boards(n, n == 3 ? 60 : 30, 8, heuristic);
+	}
+
+	@Benchmark
+	public void solveCorpus(Blackhole blackhole) {
+		for (State board : boards) {
+			Output output = executor.execute(board);
+			blackhole.consume(output.getFinal());
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package npuzzle.logic;
+
+import npuzzle.io.Output;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static npuzzle.utils.Constants.*;
+
+/**
+ * Solves the seeded corpus of one size with the heap and the bucket open list
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpenListBenchmark {
+
+	@Param({"3", "4"})
+	public int n;
+
+	@Param({ASTAR, UNIFORM})
+	public String algorithm;
+
+	@Param({HEAP, BUCKET})
+	public String openList;
+
+	private Executor.Algorithm executor;
+	private List<State> boards;
+
+	@Setup
+	public void setUp() {
+		String heuristic = algorithm.equals(UNIFORM) ? "" : MANHATTAN;
+
+		Corpus.prepare(heuristic, n);
+		executor = Executor.getAlgorithm(algorithm, openList);
+		// uniform expands every board up to the solution's depth, so its 4x4 boards stay shallow
+		boards = Corpus.boards(n, n == 3 ? 60 : algorithm.equals(UNIFORM) ? 16 : 30, 8, heuristic);
+	}
+
+	@Benchmark
+	public void solveCorpus(Blackhole blackhole) {
+		for (State board : boards) {
+			Output output = executor.execute(board);
+			blackhole.consume(output.getFinal());
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package npuzzle.logic;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static npuzzle.utils.Constants.MANHATTAN;
+
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+
+	@Param({"3", "4", "5"})
+	public int n;
+
+	private List<State> boards;
+	private List<State> copies;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Corpus.prepare(MANHATTAN, n);
+		boards = Corpus.boards(n, 40, 64, MANHATTAN);
+		copies = Corpus.boards(n, 40, 64, MANHATTAN);
+	}
+
+	private int nextIndex() {
+		return next = (next + 1) & 63;
+	}
+
+	@Benchmark
+	public List<State> createChildren() {
+		return boards.get(nextIndex()).createChildren();
+	}
+
+	/**
+	 * hash codes are cached, so a fresh copy of the board is hashed every time
+	 */
+	@Benchmark
+	public int hashCodeOfCopy() {
+		State board = boards.get(nextIndex());
+		return State.createFrom(board.getTiles(), MANHATTAN).hashCode();
+	}
+
+	@Benchmark
+	public void equalsCopy(Blackhole blackhole) {
+		int index = nextIndex();
+		blackhole.consume(boards.get(index).equals(copies.get(index)));
+		blackhole.consume(boards.get(index).equals(copies.get((index + 1) & 63)));
+	}
+
+}
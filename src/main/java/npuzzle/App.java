@@ -2,20 +2,37 @@ package npuzzle;
 
 import npuzzle.io.Input;
 import npuzzle.io.Reader;
+import npuzzle.logic.Batch;
+import npuzzle.logic.Dispatcher;
 import npuzzle.logic.Npuzzle;
+import npuzzle.logic.Server;
 
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class App {
 
 	public static void main(String[] args) {
 		List<Input> inputList = Reader.splitArgs(args);
-		ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(inputList.size());
+		ExecutorService executor = Dispatcher.create(
+				Math.min(inputList.size(), Runtime.getRuntime().availableProcessors()));
 
-		for (Input input : inputList) executor.submit(Npuzzle.create(input));
+		for (Input input : inputList)
+			if (Reader.isServer(input))
+				executor.submit(Server.create(input));
+			else if (Reader.isBatch(input))
+				executor.submit(Batch.create(input));
+			else
+				executor.submit(Npuzzle.create(input));
 		executor.shutdown();
+		// virtual threads are daemons: the JVM would not wait for them
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
 	}
 
 }
@@ -1,12 +1,13 @@
 package npuzzle.io;
 
+import npuzzle.logic.Generator;
 import npuzzle.logic.State;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
-import static npuzzle.utils.Constants.MANHATTAN;
+import static npuzzle.utils.Constants.HEAP;
 
 public class Input {
 
@@ -15,6 +16,45 @@ public class Input {
 	private String file, algorithm, heuristic;
 	private int n;
 	private boolean isRandom;
+	private boolean isBatch;
+	private String order;
+	/**
+	 * position of the puzzle in its batch, starting from 1
+	 */
+	private int index;
+	/**
+	 * most states the search may keep in memory, open or expanded, 0 for no budget
+	 */
+	private int maxNodes;
+	/**
+	 * directory a uniform search keeps its layers in, null to search in memory
+	 */
+	private String disk;
+	/**
+	 * milliseconds ara may improve its first path for, 0 to improve it until it is optimal
+	 */
+	private long timeBudget;
+	/**
+	 * milliseconds the puzzle may be solved for, 0 for as long as it takes
+	 */
+	private long deadline;
+	/**
+	 * local port the puzzles are served on, -1 to solve the puzzle of the args instead
+	 */
+	private int port = -1;
+	/**
+	 * weight of the heuristic in the order of astar, 0 for the default one
+	 */
+	private double weight;
+	private String openList = HEAP;
+	/**
+	 * file of the solution cache, null to always search
+	 */
+	private String cache;
+	/**
+	 * file the metrics of every search are appended to, null to not record them
+	 */
+	private String metrics;
 	private List<Integer> tiles;
 	private State initialState;
 
@@ -76,22 +116,119 @@ public class Input {
 		return new ArrayList<>(tiles);
 	}
 
-	void generateRandomTiles(int n) {
+	/**
+	 * @param steps - random moves away from the final board, 0 for a uniform shuffle, see {@link Generator#board}
+	 */
+	void generateRandomTiles(int n, int steps) {
 		this.n = n;
 		isRandom = true;
-		int nByN = n * n;
-
-		this.tiles = new ArrayList<>(nByN);
-		while (--nByN >= 0) tiles.add(nByN);
-
-		do Collections.shuffle(tiles);
-			while (State.createFrom(tiles, MANHATTAN).isNotSolvable());
+		this.tiles = new ArrayList<>(Generator.board(n, steps, new SplittableRandom()));
 	}
 
 	boolean isRandom() {
 		return isRandom;
 	}
 
+	public boolean isBatch() {
+		return isBatch;
+	}
+
+	void setBatch(boolean isBatch) {
+		this.isBatch = isBatch;
+	}
+
+	public String getOrder() {
+		return order;
+	}
+
+	void setOrder(String order) {
+		this.order = order;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	void setIndex(int index) {
+		this.index = index;
+	}
+
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+
+	void setMaxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+
+	public String getDisk() {
+		return disk;
+	}
+
+	void setDisk(String disk) {
+		this.disk = disk;
+	}
+
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	void setTimeBudget(long timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	void setPort(int port) {
+		this.port = port;
+	}
+
+	public boolean isServer() {
+		return port >= 0;
+	}
+
+	public long getDeadline() {
+		return deadline;
+	}
+
+	void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	public double getWeight() {
+		return weight;
+	}
+
+	void setWeight(double weight) {
+		this.weight = weight;
+	}
+
+	public String getOpenList() {
+		return openList;
+	}
+
+	void setOpenList(String openList) {
+		this.openList = openList;
+	}
+
+	public String getCache() {
+		return cache;
+	}
+
+	void setCache(String cache) {
+		this.cache = cache;
+	}
+
+	public String getMetrics() {
+		return metrics;
+	}
+
+	void setMetrics(String metrics) {
+		this.metrics = metrics;
+	}
+
 	String[] getArgs() {
 		return args;
 	}
@@ -1,27 +1,58 @@
 package npuzzle.io;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Iterables;
+import npuzzle.logic.SearchMetrics;
 import npuzzle.logic.State;
 
+import java.util.Collections;
 import java.util.List;
 
 public class Output {
 
 	private final int everInOpenSet;
 	private final int maxNumberOfSates;
-	private final List<State> path;
+	/**
+	 * letters of the directions the empty tile moves in, null if no solution was found
+	 */
+	private final String moves;
+	/**
+	 * boards along the moves, only replayed once asked for
+	 */
+	private final Supplier<List<State>> path;
+	/**
+	 * most the moves may be longer than the shortest path by, as a factor; 0 if the search does not tell
+	 */
+	private double bound;
+	/**
+	 * lookups the solution cache answered and missed so far, both 0 if the puzzle was solved without one
+	 */
+	private long cacheHits, cacheMisses;
+	/**
+	 * counters of the search that found the moves, null if they were not asked for or the moves came from the cache
+	 */
+	private SearchMetrics metrics;
+	/**
+	 * true if the search was stopped at the deadline of the input before it found a path
+	 */
+	private boolean pastDeadline;
 	private Stopwatch stopwatch;
 	private Input input;
 
-	private Output(int everInOpenSet, int maxNumberOfSates, List<State> path) {
+	private Output(int everInOpenSet, int maxNumberOfSates, State initial, String moves) {
 		this.everInOpenSet = everInOpenSet;
 		this.maxNumberOfSates = maxNumberOfSates;
-		this.path = path;
+		this.moves = moves;
+		this.path = Suppliers.memoize(() -> moves == null ? Collections.emptyList() : initial.replay(moves));
 	}
 
-	public static Output create(int everInOpenSet, int maxNumberOfSates, List<State> path) {
-		return new Output(everInOpenSet, maxNumberOfSates, path);
+	/**
+	 * @param moves - U, D, L or R for every move of the empty tile from the initial state, null if there is no solution
+	 */
+	public static Output create(int everInOpenSet, int maxNumberOfSates, State initial, String moves) {
+		return new Output(everInOpenSet, maxNumberOfSates, initial, moves);
 	}
 
 	public int getEverInOpenSet() {
@@ -36,21 +67,74 @@ public class Output {
 		return input;
 	}
 
+	public String getMoves() {
+		return moves;
+	}
+
 	List<State> getPath() {
-		return path;
+		return path.get();
+	}
+
+	public double getBound() {
+		return bound;
+	}
+
+	public Output setBound(double bound) {
+		this.bound = bound;
+		return this;
+	}
+
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	public long getCacheMisses() {
+		return cacheMisses;
+	}
+
+	public Output setCacheCounts(long hits, long misses) {
+		this.cacheHits = hits;
+		this.cacheMisses = misses;
+		return this;
+	}
+
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+
+	public Output setMetrics(SearchMetrics metrics) {
+		this.metrics = metrics;
+		return this;
+	}
+
+	public boolean isPastDeadline() {
+		return pastDeadline;
+	}
+
+	public Output setPastDeadline() {
+		this.pastDeadline = true;
+		return this;
 	}
 
 	public State getFinal() {
-		return Iterables.getLast(path, State.EMPTY);
+		return Iterables.getLast(getPath(), State.EMPTY);
 	}
 
 	@Override public String toString() {
 		return "Number of states ever in the opened set (complexity in time): " + everInOpenSet
 				+ ".\nMaximum number of states ever represented in memory at the same time (complexity in size): " + maxNumberOfSates
-				+ ".\nNumber of moves required to transition from the initial state to the final state: " + (path.size() - 1)
+				+ ".\nNumber of moves required to transition from the initial state to the final state: " + (moves == null ? -1 : moves.length())
+				+ ".\nMoves of the empty tile: " + (moves == null ? "none" : moves)
+				+ (pastDeadline ? ".\nStopped at the deadline" : "")
+				+ (bound > 0 ? String.format(".%nAt most %.2f times as long as the shortest path", bound) : "")
+				+ (cacheHits + cacheMisses > 0 ? String.format(".%nSolution cache: %d hits, %d misses", cacheHits, cacheMisses) : "")
 				+ ".\nTotal time elapsed: " + stopwatch;
 	}
 
+	Stopwatch getStopwatch() {
+		return stopwatch;
+	}
+
 	public Output setStopwatch(Stopwatch stopwatch) {
 		this.stopwatch = stopwatch;
 		return this;
@@ -8,6 +8,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,8 +25,13 @@ import static npuzzle.utils.Constants.*;
 public class Reader {
 
     private final Input input;
-    private final Validator validator;
+    private Validator validator;
     private static final Options options = prepareOptions();
+    /**
+     * held while a puzzle is typed in, so that puzzles are asked for one at a time; not {@code System.out} itself,
+     * which every other thread prints through
+     */
+    private static final Object CONSOLE = new Object();
 
     private Reader(Input input) {
         this.input = input;
@@ -43,6 +49,18 @@ public class Reader {
         options.addOption("h", HEURISTIC, true, HEURISTIC_DESCRIPTION);
         options.addOption("f", FILE, true, FILE_DESCRIPTION);
         options.addOption("r", RANDOM, true, RANDOM_DESCRIPTION);
+        options.addOption("s", STEPS, true, STEPS_DESCRIPTION);
+        options.addOption("b", BATCH, false, BATCH_DESCRIPTION);
+        options.addOption("o", ORDER, true, ORDER_DESCRIPTION);
+        options.addOption("m", MAX_NODES, true, MAX_NODES_DESCRIPTION);
+        options.addOption("d", DISK, true, DISK_DESCRIPTION);
+        options.addOption("t", TIME_BUDGET, true, TIME_BUDGET_DESCRIPTION);
+        options.addOption("w", WEIGHT, true, WEIGHT_DESCRIPTION);
+        options.addOption("l", OPEN_LIST, true, OPEN_LIST_DESCRIPTION);
+        options.addOption("c", CACHE, true, CACHE_DESCRIPTION);
+        options.addOption("j", METRICS, true, METRICS_DESCRIPTION);
+        options.addOption("e", DEADLINE, true, DEADLINE_DESCRIPTION);
+        options.addOption("p", PORT, true, PORT_DESCRIPTION);
 
         return options;
     }
@@ -58,8 +76,11 @@ public class Reader {
             parseArgs(input.getArgs());
             if (input.getAlgorithm().equals(UNIFORM) && !input.getHeuristic().isEmpty())
                 throw new InvalidInputException(Error.INCOMPATIBLE_HEURISTIC);
+            if (input.isBatch() || input.isServer())
+                return true; // puzzles are read one at a time, see readBatch and readPuzzle
             if (!input.isRandom())
                 readTiles();
+            checkHeuristicFits();
             input.setInitialState(State.createFrom(input.getTiles(), input.getHeuristic()));
             return true;
         } catch (IOException e) {
@@ -74,6 +95,28 @@ public class Reader {
         return false;
     }
 
+    /**
+     * @return true if the args ask for a batch, which is then solved apart from single puzzles
+     */
+    public static boolean isBatch(Input input) {
+        try {
+            return input.getArgs() != null && new DefaultParser().parse(options, input.getArgs()).hasOption(BATCH);
+        } catch (ParseException e) {
+            return false; // reported once the input is filled
+        }
+    }
+
+    /**
+     * @return true if the args ask for a server, which then solves the puzzles sent to it
+     */
+    public static boolean isServer(Input input) {
+        try {
+            return input.getArgs() != null && new DefaultParser().parse(options, input.getArgs()).hasOption(PORT);
+        } catch (ParseException e) {
+            return false; // reported once the input is filled
+        }
+    }
+
     private boolean isManualInput() {
         return Objects.nonNull(input.getAlgorithm()) && Objects.nonNull(input.getHeuristic())
                 && Objects.nonNull(input.getTiles()) && input.getN() != 0;
@@ -86,8 +129,31 @@ public class Reader {
         validator.saveValidAlgorithm(line.getOptionValue(ALGORITHM));
         validator.saveValidHeuristic(line.getOptionValue(HEURISTIC));
         validator.saveValidatedFile(line.getOptionValue(FILE));
-        if (line.hasOption(RANDOM))
-            validator.saveValidRandomArg(line.getOptionValue(RANDOM));
+        validator.saveValidBatch(line.hasOption(BATCH), line.getOptionValue(ORDER));
+        if (line.hasOption(MAX_NODES))
+            validator.saveValidMaxNodes(line.getOptionValue(MAX_NODES));
+        if (line.hasOption(DISK))
+            validator.saveValidDisk(line.getOptionValue(DISK));
+        if (line.hasOption(TIME_BUDGET))
+            validator.saveValidTimeBudget(line.getOptionValue(TIME_BUDGET));
+        if (line.hasOption(WEIGHT))
+            validator.saveValidWeight(line.getOptionValue(WEIGHT));
+        if (line.hasOption(OPEN_LIST))
+            validator.saveValidOpenList(line.getOptionValue(OPEN_LIST));
+        if (line.hasOption(CACHE))
+            validator.saveValidCache(line.getOptionValue(CACHE));
+        if (line.hasOption(METRICS))
+            validator.saveValidMetrics(line.getOptionValue(METRICS));
+        if (line.hasOption(DEADLINE))
+            validator.saveValidDeadline(line.getOptionValue(DEADLINE));
+        if (line.hasOption(PORT) && (line.hasOption(FILE) || line.hasOption(RANDOM) || input.isBatch()))
+            throw new InvalidInputException(Error.INCOMPATIBLE_PORT);
+        if (line.hasOption(PORT))
+            validator.saveValidPort(line.getOptionValue(PORT));
+        if (line.hasOption(STEPS) && (!line.hasOption(RANDOM) || input.isBatch()))
+            throw new InvalidInputException(Error.INCOMPATIBLE_STEPS);
+        if (line.hasOption(RANDOM) && !input.isBatch())
+            validator.saveValidRandomArg(line.getOptionValue(RANDOM), line.getOptionValue(STEPS, "0"));
     }
 
     public void readTiles() throws IOException {
@@ -96,12 +162,10 @@ public class Reader {
             Files.readAllLines(Paths.get(input.getFile())).forEach(validator::validateLine);
             finalCheck();
         } else {
-            synchronized (System.in) {
-                synchronized (System.out) {
-                    readFromStdIn();
-                    finalCheck();
-                }
+            synchronized (CONSOLE) {
+                readFromStdIn();
             }
+            finalCheck();
         }
     }
 
@@ -131,6 +195,67 @@ public class Reader {
             throw new InvalidInputException(Error.UNSOLVABLE);
     }
 
+    private void checkHeuristicFits() {
+        if (input.getHeuristic().equals(PDB) && input.getN() > PDB_MAX_N)
+            throw new InvalidInputException(Error.INCOMPATIBLE_HEURISTIC, PDB);
+        if (input.getHeuristic().equals(WALKING_DISTANCE) && input.getN() > WALKING_DISTANCE_MAX_N)
+            throw new InvalidInputException(Error.INCOMPATIBLE_HEURISTIC, WALKING_DISTANCE);
+    }
+
+    /**
+     * Reads the puzzles of a batch lazily, from the file or else from standard input up to its end.
+     * Every puzzle is a size line followed by its rows; a puzzle that is not valid is reported and skipped.
+     *
+     * @return puzzles to solve with the algorithm and heuristic of the batch
+     */
+    public Iterator<Input> readBatch() {
+        try {
+            BufferedReader lines = input.hasFile()
+                    ? Files.newBufferedReader(Paths.get(input.getFile()))
+                    : new BufferedReader(new InputStreamReader(System.in));
+            return new BatchIterator(lines);
+        } catch (IOException e) {
+            System.err.println("Cannot read input: " + e.getMessage());
+            return Collections.emptyIterator();
+        }
+    }
+
+    /**
+     * Reads a single puzzle, a size line followed by its rows, checked as every puzzle of a batch is;
+     * safe to call from several threads
+     *
+     * @param index - position of the puzzle among those read so far
+     * @return the puzzle to solve with the algorithm, heuristic and options of this input
+     * @throws InvalidInputException if the puzzle is not valid
+     */
+    public synchronized Input readPuzzle(List<String> lines, int index) {
+        try {
+            lines.forEach(validator::validateLine);
+            finalCheck();
+            checkHeuristicFits();
+        } finally {
+            validator = new Validator();
+        }
+        return puzzleOf(index);
+    }
+
+    /**
+     * @return the puzzle of the tiles just read, with the algorithm, heuristic and options of this input
+     */
+    private Input puzzleOf(int index) {
+        Input puzzle = Input.create(input.getTiles(), input.getN(), input.getAlgorithm(), input.getHeuristic());
+        puzzle.setIndex(index);
+        puzzle.setMaxNodes(input.getMaxNodes());
+        puzzle.setDisk(input.getDisk());
+        puzzle.setTimeBudget(input.getTimeBudget());
+        puzzle.setDeadline(input.getDeadline());
+        puzzle.setWeight(input.getWeight());
+        puzzle.setOpenList(input.getOpenList());
+        puzzle.setCache(input.getCache());
+        puzzle.setMetrics(input.getMetrics());
+        return puzzle;
+    }
+
     public static List<Input> splitArgs(String[] args) {
         List<Input> inputList = new ArrayList<>();
         String[] argParts = StringUtils.join(args, " ").split("\\|");
@@ -193,6 +318,8 @@ public class Reader {
             if (!isNSet) {
                 if (intValues.size() == 1) {
                     n = intValues.get(NO_TILE);
+                    if (n > MAX_N)
+                        throw new InvalidInputException(Error.SIZE_TOO_LARGE, String.valueOf(n));
                     return isNSet = true;
                 } else throw new InvalidInputException(Error.NO_SIZE);
             }
@@ -226,17 +353,22 @@ public class Reader {
             return elements.stream().map(Integer::valueOf).collect(Collectors.toList());
         }
 
-        void saveValidRandomArg(String undef) {
+        void saveValidRandomArg(String undef, String undefSteps) {
             undef = undef.trim();
+            undefSteps = undefSteps.trim();
 
             if (!undef.matches("\\d+"))
                 throw new InvalidInputException(Error.NON_NUMERIC, undef);
+            if (!undefSteps.matches("\\d+"))
+                throw new InvalidInputException(Error.NON_NUMERIC, undefSteps);
 
             int randomN = Integer.parseInt(undef);
             if (randomN < 2)
                 throw new InvalidInputException(Error.RANDOM_TOO_SMALL, undef);
+            if (randomN > MAX_N)
+                throw new InvalidInputException(Error.SIZE_TOO_LARGE, undef);
 
-            input.generateRandomTiles(randomN);
+            input.generateRandomTiles(randomN, undefSteps.length() > 9 ? Integer.MAX_VALUE : Integer.parseInt(undefSteps));
         }
 
         void saveValidAlgorithm(String undef) {
@@ -249,6 +381,14 @@ public class Reader {
                     break;
                 case ASTAR : algorithm = ASTAR;
                     break;
+                case IDA : algorithm = IDA;
+                    break;
+                case HDA : algorithm = HDA;
+                    break;
+                case BIDIRECTIONAL : algorithm = BIDIRECTIONAL;
+                    break;
+                case ARA : algorithm = ARA;
+                    break;
                 default : throw new InvalidInputException(Error.ARG_NOT_FOUND, ALGORITHM);
             }
             input.setAlgorithm(algorithm);
@@ -265,6 +405,12 @@ public class Reader {
                     break;
                 case EUCLIDEAN : heuristic = EUCLIDEAN;
                     break;
+                case PDB : heuristic = PDB;
+                    break;
+                case LINEAR_CONFLICT : heuristic = LINEAR_CONFLICT;
+                    break;
+                case WALKING_DISTANCE : heuristic = WALKING_DISTANCE;
+                    break;
                 default : heuristic = StringUtils.EMPTY;
             }
 
@@ -274,6 +420,124 @@ public class Reader {
             input.setHeuristic(heuristic);
         }
 
+        void saveValidBatch(boolean isBatch, String undef) {
+            String order;
+
+            switch (undef == null ? ORDER_INPUT : undef.trim().toLowerCase()) {
+                case ORDER_INPUT : order = ORDER_INPUT;
+                    break;
+                case ORDER_COMPLETED : order = ORDER_COMPLETED;
+                    break;
+                default : throw new InvalidInputException(Error.ARG_NOT_FOUND, ORDER);
+            }
+            input.setBatch(isBatch);
+            input.setOrder(order);
+        }
+
+        void saveValidMaxNodes(String undef) {
+            undef = undef.trim();
+
+            if (!undef.matches("\\d+"))
+                throw new InvalidInputException(Error.NON_NUMERIC, undef);
+            if (!input.getAlgorithm().equals(ASTAR) && !input.getAlgorithm().equals(UNIFORM))
+                throw new InvalidInputException(Error.INCOMPATIBLE_MAX_NODES, input.getAlgorithm());
+
+            long maxNodes = Long.parseLong(undef);
+            if (maxNodes < MAX_NODES_MIN)
+                throw new InvalidInputException(Error.MAX_NODES_TOO_SMALL, undef);
+
+            input.setMaxNodes((int) Math.min(maxNodes, Integer.MAX_VALUE));
+        }
+
+        void saveValidDisk(String directory) {
+            if (!input.getAlgorithm().equals(UNIFORM) || input.getMaxNodes() > 0)
+                throw new InvalidInputException(Error.INCOMPATIBLE_DISK);
+            try {
+                input.setDisk(Paths.get(directory.trim()).toString());
+            } catch (InvalidPathException e) {
+                throw new InvalidInputException(Error.ARG_NOT_FOUND, directory);
+            }
+        }
+
+        void saveValidTimeBudget(String undef) {
+            undef = undef.trim();
+
+            if (!undef.matches("\\d+"))
+                throw new InvalidInputException(Error.NON_NUMERIC, undef);
+            if (!input.getAlgorithm().equals(ARA))
+                throw new InvalidInputException(Error.INCOMPATIBLE_TIME_BUDGET);
+
+            input.setTimeBudget(undef.length() > 18 ? Long.MAX_VALUE : Long.parseLong(undef));
+        }
+
+        void saveValidPort(String undef) {
+            undef = undef.trim();
+
+            if (!undef.matches("\\d+"))
+                throw new InvalidInputException(Error.NON_NUMERIC, undef);
+            if (undef.length() > 5 || Integer.parseInt(undef) > 65535)
+                throw new InvalidInputException(Error.PORT_OUT_OF_RANGE, undef);
+
+            input.setPort(Integer.parseInt(undef));
+        }
+
+        void saveValidDeadline(String undef) {
+            undef = undef.trim();
+
+            if (!undef.matches("\\d+"))
+                throw new InvalidInputException(Error.NON_NUMERIC, undef);
+
+            input.setDeadline(undef.length() > 18 ? Long.MAX_VALUE : Long.parseLong(undef));
+        }
+
+        void saveValidWeight(String undef) {
+            undef = undef.trim();
+
+            if (!undef.matches("\\d+(\\.\\d+)?"))
+                throw new InvalidInputException(Error.NON_NUMERIC, undef);
+            if (!input.getAlgorithm().equals(ASTAR) || input.getMaxNodes() > 0)
+                throw new InvalidInputException(Error.INCOMPATIBLE_WEIGHT);
+
+            double weight = Double.parseDouble(undef);
+            if (weight < 1)
+                throw new InvalidInputException(Error.WEIGHT_TOO_SMALL, undef);
+
+            input.setWeight(weight);
+        }
+
+        void saveValidCache(String file) {
+            try {
+                input.setCache(Paths.get(file.trim()).toString());
+            } catch (InvalidPathException e) {
+                throw new InvalidInputException(Error.ARG_NOT_FOUND, file);
+            }
+        }
+
+        void saveValidMetrics(String file) {
+            try {
+                input.setMetrics(Paths.get(file.trim()).toString());
+            } catch (InvalidPathException e) {
+                throw new InvalidInputException(Error.ARG_NOT_FOUND, file);
+            }
+        }
+
+        void saveValidOpenList(String undef) {
+            String openList;
+
+            switch (undef.trim().toLowerCase()) {
+                case HEAP : openList = HEAP;
+                    break;
+                case BUCKET : openList = BUCKET;
+                    break;
+                default : throw new InvalidInputException(Error.ARG_NOT_FOUND, OPEN_LIST);
+            }
+            if (!input.getAlgorithm().equals(ASTAR) && !input.getAlgorithm().equals(UNIFORM)
+                    || input.getMaxNodes() > 0 || input.getDisk() != null)
+                throw new InvalidInputException(Error.INCOMPATIBLE_OPEN_LIST);
+
+            input.setOpenList(openList);
+        }
+
         void saveValidatedFile(String absolutePath) {
             input.setFile(absolutePath);
         }
@@ -283,4 +547,86 @@ public class Reader {
         }
 
     }
+
+    private class BatchIterator implements Iterator<Input> {
+
+        private final BufferedReader lines;
+        private Input next;
+        private int index;
+        /**
+         * set after an invalid puzzle, its remaining lines are skipped up to the next size line
+         */
+        private boolean skipping;
+        private boolean done;
+
+        BatchIterator(BufferedReader lines) {
+            this.lines = lines;
+            validator = new Validator();
+        }
+
+        @Override public boolean hasNext() {
+            if (next == null)
+                next = readNext();
+            return next != null;
+        }
+
+        @Override public Input next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Input puzzle = next;
+            next = null;
+            return puzzle;
+        }
+
+        private Input readNext() {
+            String line;
+
+            if (done) return null;
+            try {
+                while ((line = lines.readLine()) != null) {
+                    if (StringUtils.isBlank(line)) continue; // puzzles may be separated by empty lines
+                    boolean starting = !validator.isNSet;
+                    try {
+                        if (skipping && validator.splitLineAndRemoveComments(line).size() != 1)
+                            continue;
+                        skipping = false;
+                        validator.validateLine(line);
+                        if (starting && validator.isNSet)
+                            index++;
+                        if (validator.isNSet && validator.tiles.size() == validator.n * validator.n)
+                            return complete();
+                    } catch (InvalidInputException e) {
+                        if (starting) index++;
+                        skip(e);
+                    }
+                }
+                done = true;
+                lines.close();
+                if (validator.isNSet)
+                    validator.checkEnoughTiles(); // the last puzzle ended early
+            } catch (InvalidInputException e) {
+                skip(e);
+            } catch (IOException e) {
+                done = true;
+                System.err.println("Cannot read input: " + e.getMessage());
+            }
+            return null;
+        }
+
+        private Input complete() {
+            try {
+                finalCheck();
+                checkHeuristicFits();
+            } finally {
+                validator = new Validator();
+            }
+            return puzzleOf(index);
+        }
+
+        private void skip(InvalidInputException e) {
+            System.err.println("Puzzle " + index + ": " + e.getMessage());
+            validator = new Validator();
+            skipping = true;
+        }
+
+    }
 }
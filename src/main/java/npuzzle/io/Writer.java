@@ -1,6 +1,8 @@
 package npuzzle.io;
 
+import npuzzle.logic.SearchMetrics;
 import npuzzle.logic.State;
+import org.json.JSONObject;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -15,60 +17,100 @@ import java.util.Objects;
  * @author dpozinen
  * <p>
  * used to write program output
- * public methods are synchronized to avoid multiple threads printing their output at the same time
+ * every output is put together first and printed with a single call, which {@link java.io.PrintStream} keeps whole,
+ * so that threads never wait on each other to print; only writes to shared files are synchronized
  */
 
 // TODO: refactor
 public class Writer {
 
-	public synchronized static void writeToFile(Input input, Output output, boolean fast) {
+	public static void writeToFile(Input input, Output output, boolean fast) {
 		write(input, output, fast, Integer.toString(input.hashCode()));
 	}
 
-	public synchronized static void write(Input input, Output output, boolean fast, String filename) {
-		if (Objects.isNull(filename)) {
-			System.out.println(input);
-			write(output.getPath(), fast, null);
-			System.out.println(output);
-		} else try {
-				Path p = Paths.get(filename);
-				Files.write(p, (input.toString() + "\n").getBytes());
-				write(output.getPath(), fast, filename);
-				Files.write(p, output.toString().getBytes(), StandardOpenOption.APPEND);
+	public static void write(Input input, Output output, boolean fast, String filename) {
+		String path = format(output.getPath(), fast);
+
+		if (Objects.isNull(filename))
+			System.out.printf("%s%n%s%n%s%n", input, path, output);
+		else try {
+				Files.write(Paths.get(filename), (input + "\n" + path + output).getBytes());
 			} catch (IOException e) { e.printStackTrace(); }
 	}
 
-	public synchronized static void write(Input input, Output output, boolean fast) {
+	public static void write(Input input, Output output, boolean fast) {
 		write(input, output, fast, null);
 	}
 
-	public synchronized static void write(Input input, Output output) {
+	public static void write(Input input, Output output) {
 		write(input, output, true);
 	}
 
-	public synchronized static void write(List<State> states, boolean fast, String filename) {
+	public static void write(List<State> states, boolean fast, String filename) {
+		String path = format(states, fast);
+
+		if (Objects.isNull(filename))
+			System.out.println(path);
+		else try {
+				Files.write(Paths.get(filename), path.getBytes(), StandardOpenOption.APPEND);
+			} catch (IOException e) { e.printStackTrace(); }
+	}
+
+	/**
+	 * Writes the result of a puzzle from a batch as a single line, starting with its position in the batch
+	 */
+	public static void writeLine(Output output) {
+		String moves = output.getMoves();
+
+		System.out.printf("%d: %s | moves: %d | open: %d | max: %d | %s%n", output.getInput().getIndex(),
+				moves == null ? "none" : moves, moves == null ? -1 : moves.length(),
+				output.getEverInOpenSet(), output.getMaxNumberOfSates(), output.getStopwatch());
+	}
+
+	/**
+	 * Appends the metrics of the search to the metrics file of its input as one line of JSON; does nothing without them
+	 */
+	public synchronized static void writeMetrics(Output output) {
+		SearchMetrics metrics = output.getMetrics();
+		Input input = output.getInput();
+
+		if (metrics == null || input.getMetrics() == null) return;
+		JSONObject line = new JSONObject()
+				.put("index", input.getIndex()).put("n", input.getN())
+				.put("algorithm", input.getAlgorithm()).put("heuristic", input.getHeuristic())
+				.put("moves", output.getMoves() == null ? -1 : output.getMoves().length())
+				.put("expansions", metrics.getExpansions()).put("generations", metrics.getGenerations())
+				.put("duplicates", metrics.getDuplicates()).put("reopenings", metrics.getReopenings())
+				.put("nodesPerSecond", metrics.getNodesPerSecond())
+				.put("peakFrontier", metrics.getPeakFrontier()).put("peakClosed", metrics.getPeakClosed())
+				.put("heuristicNanos", metrics.getHeuristicNanos()).put("hashingNanos", metrics.getHashingNanos())
+				.put("queueNanos", metrics.getQueueNanos()).put("elapsedNanos", metrics.getElapsedNanos())
+				.put("allocatedBytes", metrics.getAllocatedBytes());
 		try {
-			if (fast) writeFast(states, filename);
-			else writeSlow(states, filename);
+			Path path = Paths.get(input.getMetrics());
+			if (path.getParent() != null)
+				Files.createDirectories(path.getParent());
+			Files.write(path, (line + System.lineSeparator()).getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
 		} catch (IOException e) { e.printStackTrace(); }
 	}
 
-	public synchronized static void write(State state) {
+	public static void write(State state) {
 		System.out.println(createPrettyTiles(state));
 	}
 
-	private static void writeFast(List<State> states, String fileName) throws IOException {
+	private static String format(List<State> states, boolean fast) {
+		return fast ? formatFast(states) : formatSlow(states);
+	}
+
+	private static String formatFast(List<State> states) {
 		StringBuilder sb = new StringBuilder();
 		for (State s : states)
 			sb.append(s).append("\n");
-		if (Objects.nonNull(fileName))
-			Files.write(Paths.get(fileName), sb.toString().getBytes(), StandardOpenOption.APPEND);
-		else
-			System.out.println(sb);
+		return sb.toString();
 	}
 
 	// TODO: count proper offset
-	private static void writeSlow(List<State> states, String filename) throws IOException {
+	private static String formatSlow(List<State> states) {
 		int i = states.size();
 		StringBuilder sb = new StringBuilder();
 
@@ -77,11 +119,7 @@ public class Writer {
 			if (--i > 0)
 				sb.append("\n\n");
 		}
-
-		if (Objects.isNull(filename))
-			System.out.println(sb);
-		else
-			Files.write(Paths.get(filename), sb.toString().getBytes(), StandardOpenOption.APPEND);
+		return sb.toString();
 	}
 
 	private static StringBuilder createPrettyTiles(State state) {
@@ -0,0 +1,176 @@
+package npuzzle.logic;
+
+import npuzzle.io.Output;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Anytime repairing A* (ARA*): weighted A* ordered by g + w * h, that finds a first path quickly with a high weight,
+ * then lowers the weight and improves the path, reusing what was searched so far, until it is optimal or time is up.
+ * <p>
+ * After every round the cost of the path over the least g + h of any state left to expand
+ * bounds how far it may be from the shortest one; the bound is handed out with the path.
+ */
+final class AnytimeSearch {
+
+	private static final double INITIAL_WEIGHT = 3;
+	private static final double WEIGHT_STEP = 0.5;
+
+	private final int n;
+	private final long deadline;
+	private final SearchControl control;
+	/**
+	 * shortest known path to every state ever generated
+	 */
+	private final ClosedTable bestPaths;
+	/**
+	 * states expanded in the current round
+	 */
+	private ClosedTable closedSet;
+	private PriorityQueue<Node> openList;
+	/**
+	 * states reached by a shorter path after they were expanded in the current round, opened again by the next one
+	 */
+	private final List<State> inconsistent = new ArrayList<>();
+	private double weight = INITIAL_WEIGHT;
+	private CostPolicy policy = CostPolicy.weighted(INITIAL_WEIGHT);
+	private State goal;
+	private int cost = Integer.MAX_VALUE;
+	private long expansions;
+	private int everInOpenSet;
+
+	private AnytimeSearch(int n, long timeBudget, SearchControl control) {
+		this.n = n;
+		this.control = control;
+		this.deadline = timeBudget > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudget) : Long.MAX_VALUE;
+		this.bestPaths = new ClosedTable(n);
+		this.closedSet = new ClosedTable(n);
+		this.openList = new PriorityQueue<>();
+	}
+
+	/**
+	 * @param timeBudget - milliseconds to improve the first path for, 0 to improve it until it is optimal
+	 */
+	static Output execute(State initial, long timeBudget, SearchControl control) {
+		return new AnytimeSearch(initial.getN(), timeBudget, control).search(initial);
+	}
+
+	private Output search(State initial) {
+		double bound = Double.POSITIVE_INFINITY;
+		String moves = null;
+
+		if (!initial.isNotFinal())
+			return Output.create(0, 1, initial, "").setBound(1);
+		bestPaths.add(initial);
+		open(initial);
+		while (true) {
+			boolean done = improvePath();
+			if (goal == null) break;
+			moves = bestPaths.movesTo(goal);
+			// a round cut short by the deadline keeps the weight of the last finished one, if any
+			bound = Math.min(done ? weight : bound, cost / (double) leastCost());
+			if (!done || bound <= 1) break;
+			weight = Math.max(1, weight - WEIGHT_STEP);
+			policy = CostPolicy.weighted(weight);
+			repair();
+		}
+		return Output.create(everInOpenSet, bestPaths.size(), initial, moves).setBound(goal == null ? 0 : Math.max(1, bound));
+	}
+
+	/**
+	 * Expands states until none left can lead to a shorter path at the current weight
+	 *
+	 * @return false if time ran out first; never before some path is found
+	 */
+	private boolean improvePath() {
+		Node current;
+
+		while ((current = openList.peek()) != null && current.key < cost) {
+			openList.poll();
+			State state = current.state;
+			if (isStale(state) || !closedSet.add(state)) continue;
+			if (++expansions % SearchControl.INTERVAL == 0) {
+				control.checkpoint(state.getPathSize() + state.heuristic());
+				if (goal != null && System.nanoTime() > deadline)
+					return false;
+			}
+
+			for (State child : state.createChildren()) {
+				if (!bestPaths.add(child)) continue;
+				if (!child.isNotFinal()) {
+					goal = child;
+					cost = child.getPathSize();
+				} else if (closedSet.contains(child))
+					inconsistent.add(child);
+				else
+					open(child);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return least g + h of any state that is still to be expanded
+	 */
+	private int leastCost() {
+		int least = cost;
+
+		for (Node node : openList)
+			if (!isStale(node.state))
+				least = Math.min(least, node.state.getPathSize() + node.state.heuristic());
+		for (State state : inconsistent)
+			least = Math.min(least, state.getPathSize() + state.heuristic());
+		return least;
+	}
+
+	/**
+	 * Starts a round with the lowered weight: open and inconsistent states are ordered anew, nothing is closed
+	 */
+	private void repair() {
+		PriorityQueue<Node> previous = openList;
+
+		openList = new PriorityQueue<>(Math.max(1, previous.size() + inconsistent.size()));
+		for (Node node : previous)
+			if (!isStale(node.state))
+				openList.add(node(node.state));
+		for (State state : inconsistent)
+			openList.add(node(state));
+		inconsistent.clear();
+		closedSet = new ClosedTable(n);
+	}
+
+	private void open(State state) {
+		openList.add(node(state));
+		everInOpenSet++;
+	}
+
+	private Node node(State state) {
+		return new Node(state, policy.cost(state));
+	}
+
+	/**
+	 * @return true if the state was reached by a shorter path since it was opened
+	 */
+	private boolean isStale(State state) {
+		return bestPaths.pathSizeOf(state) < state.getPathSize();
+	}
+
+	private static final class Node implements Comparable<Node> {
+
+		private final State state;
+		private final double key;
+
+		private Node(State state, double key) {
+			this.state = state;
+			this.key = key;
+		}
+
+		@Override public int compareTo(Node other) {
+			int order = Double.compare(key, other.key);
+			return order != 0 ? order : Integer.compare(state.heuristic(), other.state.heuristic());
+		}
+
+	}
+
+}
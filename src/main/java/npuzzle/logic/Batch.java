@@ -0,0 +1,93 @@
+package npuzzle.logic;
+
+import npuzzle.io.Input;
+import npuzzle.io.Output;
+import npuzzle.io.Reader;
+import npuzzle.io.Writer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.*;
+
+import static npuzzle.utils.Constants.ORDER_INPUT;
+
+/**
+ * Solves every puzzle of one input on a pool of one thread per processor.
+ * Puzzles are read only as workers free up, at most two per thread being in flight at a time,
+ * and every result is written as a line as soon as it is due: in input order, or as puzzles complete.
+ */
+public class Batch implements Callable<Integer> {
+
+	private final Input input;
+	private final int threads = Runtime.getRuntime().availableProcessors();
+	/**
+	 * puzzles submitted and not written yet, in input order
+	 */
+	private final Deque<Future<Output>> pending = new ArrayDeque<>();
+	private ExecutorService pool;
+	private CompletionService<Output> completion;
+	private int solved;
+
+	private Batch(Input input) {
+		this.input = input;
+	}
+
+	public static Batch create(Input input) {
+		return new Batch(input);
+	}
+
+	/**
+	 * @return number of puzzles solved
+	 */
+	@Override
+	public Integer call() throws InterruptedException {
+		Reader reader = Reader.createWith(input);
+
+		if (!reader.fillInput()) return 0;
+		pool = Dispatcher.create(threads);
+		completion = new ExecutorCompletionService<>(pool);
+		try {
+			for (Iterator<Input> puzzles = reader.readBatch(); puzzles.hasNext(); ) {
+				if (pending.size() == 2 * threads)
+					writeNext();
+				submit(puzzles.next());
+			}
+			while (!pending.isEmpty())
+				writeNext();
+		} finally {
+			pool.shutdownNow();
+		}
+		return solved;
+	}
+
+	private void submit(Input puzzle) {
+		// shared tables are filled here, by a single thread, before any worker reads them
+		Evaluator.loadTables(puzzle.getHeuristic(), puzzle.getN());
+
+		Callable<Output> task = Npuzzle.create(puzzle)::solve;
+		pending.add(isInInputOrder() ? pool.submit(task) : completion.submit(task));
+	}
+
+	private void writeNext() throws InterruptedException {
+		Future<Output> future = isInInputOrder() ? pending.poll() : completion.take();
+
+		if (!isInInputOrder())
+			pending.remove(future);
+		try {
+			Output output = future.get();
+			if (output == null) return;
+			Writer.writeLine(output);
+			Writer.writeMetrics(output);
+			if (output.getMoves() != null)
+				solved++;
+		} catch (ExecutionException e) {
+			System.err.println("Cannot solve puzzle: " + e.getCause());
+		}
+	}
+
+	private boolean isInInputOrder() {
+		return ORDER_INPUT.equals(input.getOrder());
+	}
+
+}
@@ -0,0 +1,177 @@
+package npuzzle.logic;
+
+import npuzzle.io.Output;
+
+import java.util.*;
+
+import static npuzzle.utils.Constants.NO_TILE;
+
+/**
+ * Bidirectional A*: one search runs forward from the initial state guided by the chosen heuristic,
+ * the other runs backward from the final state guided by the Manhattan distance to the initial state.
+ * The side with the smaller open list is expanded, and every generated state is looked up on the other side
+ * to find the cheapest meeting point so far.
+ * <p>
+ * A path not found yet must still go through an open state of each side, so it cannot be cheaper than the smallest
+ * f of either side: the search stops once the best meeting point is not above the larger of the two.
+ * With an admissible heuristic the path is then optimal.
+ */
+final class BidirectionalSearch {
+
+	private final Side forward;
+	private final Side backward;
+	private final int n;
+	private final int[] initialRow;
+	private final int[] initialColumn;
+	private final SearchControl control;
+	private long expansions;
+	private int bestCost = Integer.MAX_VALUE;
+	/**
+	 * board of the best meeting point, reached by both sides
+	 */
+	private State meeting;
+
+	private BidirectionalSearch(State initial, SearchControl control) {
+		this.n = initial.getN();
+		this.control = control;
+		this.initialRow = new int[n * n];
+		this.initialColumn = new int[n * n];
+		for (int index = 0; index < n * n; index++) {
+			initialRow[initial.tile(index)] = index / n;
+			initialColumn[initial.tile(index)] = index % n;
+		}
+
+		State finalState = Goal.of(n).state;
+		this.forward = new Side(new Node(initial, initial.heuristic()), n);
+		this.backward = new Side(new Node(finalState, distanceToInitial(finalState)), n);
+	}
+
+	static Output execute(State initial, SearchControl control) {
+		return new BidirectionalSearch(initial, control).execute();
+	}
+
+	private Output execute() {
+		meet(forward.root, backward);
+
+		while (!forward.openList.isEmpty() && !backward.openList.isEmpty()
+				&& bestCost > Math.max(forward.minCost(), backward.minCost())) {
+			if (forward.openList.size() <= backward.openList.size())
+				expand(forward, backward, true);
+			else
+				expand(backward, forward, false);
+		}
+
+		return Output.create(forward.everInOpenSet + backward.everInOpenSet,
+				forward.maxNumberOfStates + backward.maxNumberOfStates, forward.root.state,
+				meeting == null ? null : forward.bestPaths.movesTo(meeting) + State.invert(backward.bestPaths.movesTo(meeting)));
+	}
+
+	private void expand(Side side, Side other, boolean isForward) {
+		Node current = side.poll();
+
+		if (current == null) return;
+		if (++expansions % SearchControl.INTERVAL == 0)
+			control.checkpoint(current.cost());
+		for (State child : current.state.createChildren()) {
+			Node node = new Node(child, isForward ? child.heuristic() : distanceToInitial(current, child));
+			if (node.cost() < bestCost && side.open(node))
+				meet(node, other);
+		}
+	}
+
+	private void meet(Node node, Side other) {
+		int match = other.bestPaths.pathSizeOf(node.state);
+
+		if (match < 0 || node.state.getPathSize() + match >= bestCost) return;
+		bestCost = node.state.getPathSize() + match;
+		meeting = node.state;
+	}
+
+	private int distanceToInitial(State state) {
+		int distance = 0, tile;
+
+		for (int index = 0; index < n * n; index++)
+			if ((tile = state.tile(index)) != NO_TILE)
+				distance += Math.abs(index / n - initialRow[tile]) + Math.abs(index % n - initialColumn[tile]);
+		return distance;
+	}
+
+	/**
+	 * Only the tile that slid into the parent's empty cell changed its place
+	 */
+	private int distanceToInitial(Node parent, State child) {
+		int from = child.getBlank(), to = parent.state.getBlank(), tile = child.tile(to);
+
+		return parent.h
+				- Math.abs(from / n - initialRow[tile]) - Math.abs(from % n - initialColumn[tile])
+				+ Math.abs(to / n - initialRow[tile]) + Math.abs(to % n - initialColumn[tile]);
+	}
+
+	private static final class Node {
+
+		private final State state;
+		private final int h;
+
+		private Node(State state, int h) {
+			this.state = state;
+			this.h = h;
+		}
+
+		private int cost() {
+			return state.getPathSize() + h;
+		}
+
+	}
+
+	private static final class Side {
+
+		private final Node root;
+		private final PriorityQueue<Node> openList = new PriorityQueue<>(
+				Comparator.comparingInt(Node::cost).thenComparingInt(node -> node.h));
+		/**
+		 * shortest path found to every board reached by this side, open or closed
+		 */
+		private final ClosedTable bestPaths;
+		private int everInOpenSet;
+		private int maxNumberOfStates;
+
+		private Side(Node root, int n) {
+			this.root = root;
+			this.bestPaths = new ClosedTable(n);
+			open(root);
+		}
+
+		/**
+		 * @return false if the board was already reached with a path at least as short
+		 */
+		private boolean open(Node node) {
+			if (!bestPaths.add(node.state)) return false;
+			openList.add(node);
+			everInOpenSet++;
+			maxNumberOfStates = Math.max(maxNumberOfStates, bestPaths.size());
+			return true;
+		}
+
+		/**
+		 * @return the best open node, skipping those reached again by a shorter path since they were added
+		 */
+		private Node poll() {
+			Node node;
+
+			while ((node = openList.poll()) != null)
+				if (bestPaths.pathSizeOf(node.state) == node.state.getPathSize())
+					return node;
+			return null;
+		}
+
+		private int minCost() {
+			Node node;
+
+			while ((node = openList.peek()) != null && bestPaths.pathSizeOf(node.state) != node.state.getPathSize())
+				openList.poll();
+			return node == null ? Integer.MAX_VALUE : node.cost();
+		}
+
+	}
+
+}
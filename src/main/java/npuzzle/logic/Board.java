@@ -0,0 +1,21 @@
+package npuzzle.logic;
+
+/**
+ * Read-only access to the tiles of a board, shared by immutable {@link State}s
+ * and the mutable board of {@link IdaSearch}, so heuristics can evaluate both
+ */
+interface Board {
+
+	/**
+	 * @return the tile at {@code index}, counting row by row from the top left corner
+	 */
+	int tile(int index);
+
+	/**
+	 * @return index of the empty tile
+	 */
+	int getBlank();
+
+	int getN();
+
+}
@@ -0,0 +1,196 @@
+package npuzzle.logic;
+
+import npuzzle.io.Output;
+
+import java.util.*;
+
+/**
+ * Memory-bounded A*, SMA*: the search is ordered by f = g + h and never keeps more than a given number of states
+ * in memory, open and expanded alike. The states form a tree, every one knowing its parent, and the path is rebuilt
+ * from it; nothing else is kept. Before a child is added to a full tree the worst open leaf is forgotten,
+ * and the smallest f of the forgotten children of a state is backed up into it: the state is opened again
+ * with that f, and expanding it later brings those children back. Nothing is lost, only delayed,
+ * so with an admissible heuristic the path is optimal.
+ * <p>
+ * Boards are only recognised while they are in memory, so forgotten ones may be searched again.
+ * A path longer than the budget does not fit in memory and is not found.
+ */
+final class BoundedSearch {
+
+	/**
+	 * f of a state whose path already takes up the whole budget, and of the states it is backed up into
+	 */
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final int maxNodes;
+	private final SearchControl control;
+	private final NavigableSet<Node> openList = new TreeSet<>(Comparator
+			.comparingInt((Node node) -> node.f)
+			.thenComparingInt(node -> node.state.heuristic())
+			.thenComparingLong(node -> node.order));
+	/**
+	 * the node of every board in memory by the shortest path known
+	 */
+	private final Map<State, Node> nodes = new HashMap<>();
+	private int inMemory;
+	/**
+	 * the node being expanded, kept even while it has no children yet
+	 */
+	private Node expanding;
+	private long order;
+	private int everInOpenSet;
+	private int maxNumberOfStates;
+	private long expansions;
+
+	private BoundedSearch(int maxNodes, SearchControl control) {
+		this.maxNodes = maxNodes;
+		this.control = control;
+	}
+
+	static Output execute(State initial, int maxNodes, SearchControl control) {
+		return new BoundedSearch(maxNodes, control).execute(initial);
+	}
+
+	private Output execute(State initial) {
+		Node current;
+
+		add(new Node(initial, null, initial.getPathSize() + initial.heuristic()));
+		while ((current = openList.pollFirst()) != null && current.f != UNREACHABLE) {
+			current.open = false;
+			if (++expansions % SearchControl.INTERVAL == 0)
+				control.checkpoint(current.f);
+			if (!current.state.isNotFinal())
+				return Output.create(everInOpenSet, maxNumberOfStates, initial, movesTo(current));
+			expand(current);
+		}
+		return Output.create(everInOpenSet, maxNumberOfStates, initial, null);
+	}
+
+	/**
+	 * Adds the children not in memory by a path as short, forgetting a leaf for each once the tree is full.
+	 * A child costs no less than its parent, which after coming back from forgotten children is their smallest f.
+	 */
+	private void expand(Node current) {
+		expanding = current;
+		current.forgotten = UNREACHABLE;
+		for (State child : current.state.createChildren()) {
+			Node known = nodes.get(child);
+			if (known != null) {
+				if (known.state.getPathSize() <= child.getPathSize()) continue;
+				if (known.children == 0) remove(known); // reached by a shorter path since, with nothing under it
+			}
+			if (inMemory >= maxNodes && !forget()) break;
+			int f = child.isNotFinal() && child.getPathSize() + 1 >= maxNodes
+					? UNREACHABLE : Math.max(current.f, child.getPathSize() + child.heuristic());
+			add(new Node(child, current, f));
+			current.children++;
+		}
+		expanding = null;
+		if (isDead(current))
+			remove(current); // every child is in memory elsewhere by a path as short
+	}
+
+	private void add(Node node) {
+		nodes.put(node.state, node);
+		inMemory++;
+		maxNumberOfStates = Math.max(maxNumberOfStates, inMemory);
+		open(node);
+		everInOpenSet++;
+	}
+
+	private void open(Node node) {
+		node.order = order++;
+		node.open = true;
+		openList.add(node);
+	}
+
+	/**
+	 * Forgets the worst open leaf, backing its f up into the parent, which is opened again with it if it is lower
+	 * than that of the children forgotten before
+	 *
+	 * @return false if no state but the initial one is a leaf
+	 */
+	private boolean forget() {
+		for (Iterator<Node> worst = openList.descendingIterator(); worst.hasNext(); ) {
+			Node node = worst.next();
+			if (node.children > 0 || node.parent == null) continue;
+			Node parent = node.parent;
+			if (node.f < parent.forgotten) {
+				if (parent.open) openList.remove(parent);
+				parent.forgotten = node.f;
+				parent.f = node.f;
+				open(parent);
+			}
+			remove(node);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Drops a leaf from memory, and its parent with it once the parent has nothing left to come back to
+	 */
+	private void remove(Node node) {
+		Node parent = node.parent;
+
+		if (node.open) {
+			openList.remove(node);
+			node.open = false;
+		}
+		nodes.remove(node.state, node);
+		inMemory--;
+		parent.children--;
+		if (isDead(parent) && parent != expanding)
+			remove(parent);
+	}
+
+	/**
+	 * @return true if nothing under the node is left to search: no child in memory, none forgotten, and not open itself;
+	 * never for the initial state
+	 */
+	private static boolean isDead(Node node) {
+		return node.children == 0 && !node.open && node.forgotten == UNREACHABLE && node.parent != null;
+	}
+
+	/**
+	 * @return letters of the moves from the initial state, see {@link State#MOVES}
+	 */
+	private static String movesTo(Node node) {
+		StringBuilder moves = new StringBuilder();
+
+		for (Node current = node; current.parent != null; current = current.parent)
+			moves.append(State.MOVES.charAt(current.state.getMove()));
+		return moves.reverse().toString();
+	}
+
+	private static final class Node {
+
+		private final State state;
+		private final Node parent;
+		/**
+		 * g + h, or the f backed up from forgotten children; only changed while the node is not open
+		 */
+		private int f;
+		/**
+		 * tells apart nodes that compare equal otherwise, the older first
+		 */
+		private long order;
+		private boolean open;
+		/**
+		 * children in memory
+		 */
+		private int children;
+		/**
+		 * smallest f of the children forgotten since the node was last expanded
+		 */
+		private int forgotten = UNREACHABLE;
+
+		private Node(State state, Node parent, int f) {
+			this.state = state;
+			this.parent = parent;
+			this.f = f;
+		}
+
+	}
+
+}
@@ -0,0 +1,105 @@
+package npuzzle.logic;
+
+import java.util.*;
+
+/**
+ * {@link OpenList} as an array of buckets, one per whole cost, each an array of LIFO stacks, one per heuristic.
+ * Costs and heuristics of the puzzle are small integers, so a state is pushed and polled in constant time
+ * but for the scan over empty buckets, which only ever moves up between two lower pushes.
+ * <p>
+ * The order is that of {@link CostPolicy#order()}, the latest state first among equals.
+ * A fractional cost falls into the bucket of its whole part, where the heuristic alone orders it.
+ */
+final class BucketOpenList implements OpenList {
+
+	private final CostPolicy policy;
+	/**
+	 * by cost; null for costs no state was pushed with yet, or that were emptied since
+	 */
+	private final List<Bucket> buckets = new ArrayList<>();
+	private final Map<State, State> index = new HashMap<>();
+	/**
+	 * no bucket below it holds a state
+	 */
+	private int least = Integer.MAX_VALUE;
+
+	BucketOpenList(CostPolicy policy) {
+		this.policy = policy;
+	}
+
+	@Override public boolean offer(State state) {
+		State known = index.get(state);
+
+		if (known != null && known.getPathSize() <= state.getPathSize())
+			return false;
+		index.put(state, state);
+
+		int cost = (int) policy.cost(state);
+		while (buckets.size() <= cost)
+			buckets.add(null);
+		Bucket bucket = buckets.get(cost);
+		if (bucket == null)
+			buckets.set(cost, bucket = new Bucket());
+		bucket.push(state);
+		least = Math.min(least, cost);
+		return true;
+	}
+
+	@Override public State poll() {
+		State state;
+
+		for (; least < buckets.size(); least++) {
+			Bucket bucket = buckets.get(least);
+			if (bucket == null) continue;
+			while ((state = bucket.pop()) != null)
+				if (index.get(state) == state) {
+					index.remove(state);
+					return state;
+				}
+			buckets.set(least, null);
+		}
+		return null;
+	}
+
+	@Override public int size() {
+		return index.size();
+	}
+
+	/**
+	 * States of one cost, by heuristic
+	 */
+	private static final class Bucket {
+
+		/**
+		 * null for heuristics no state was pushed with yet
+		 */
+		private final List<ArrayDeque<State>> stacks = new ArrayList<>();
+		private int least = Integer.MAX_VALUE;
+
+		private void push(State state) {
+			int heuristic = state.heuristic();
+
+			while (stacks.size() <= heuristic)
+				stacks.add(null);
+			ArrayDeque<State> stack = stacks.get(heuristic);
+			if (stack == null)
+				stacks.set(heuristic, stack = new ArrayDeque<>());
+			stack.push(state);
+			least = Math.min(least, heuristic);
+		}
+
+		/**
+		 * @return the latest state of the lowest heuristic, null if there is none left
+		 */
+		private State pop() {
+			for (; least < stacks.size(); least++) {
+				ArrayDeque<State> stack = stacks.get(least);
+				if (stack != null && !stack.isEmpty())
+					return stack.pop();
+			}
+			return null;
+		}
+
+	}
+
+}
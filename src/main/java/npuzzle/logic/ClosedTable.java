@@ -0,0 +1,157 @@
+package npuzzle.logic;
+
+import java.util.function.Function;
+
+/**
+ * Closed set of a search as an open-addressing table over the boards' key words (see {@link State#keyWord}).
+ * Only the key, the shortest known path and the move that led to the board are kept:
+ * 13 bytes a board of up to 4x4 plus the free slots, with no object per entry.
+ * <p>
+ * Collisions are resolved by linear probing; a zero first word marks a free slot.
+ */
+final class ClosedTable {
+
+	private static final int INITIAL_CAPACITY = 1 << 10;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private final int width;
+	private long[] keys;
+	private int[] pathSizes;
+	private byte[] moves;
+	private int mask;
+	private int size;
+
+	ClosedTable(int n) {
+		this.width = State.keyWidth(n);
+		allocate(INITIAL_CAPACITY);
+	}
+
+	boolean contains(State state) {
+		return keys[slotOf(state) * width] != 0;
+	}
+
+	/**
+	 * @return false if the board is already closed with a path at least as short
+	 */
+	boolean add(State state) {
+		int slot = slotOf(state);
+
+		if (keys[slot * width] != 0) {
+			if (pathSizes[slot] <= state.getPathSize()) return false;
+		} else {
+			for (int word = 0; word < width; word++)
+				keys[slot * width + word] = state.keyWord(word);
+			size++;
+		}
+		pathSizes[slot] = state.getPathSize();
+		moves[slot] = state.getMove();
+
+		if (size > mask * LOAD_FACTOR)
+			resize();
+		return true;
+	}
+
+	/**
+	 * @return shortest known path to the board, -1 if it is not in the table
+	 */
+	int pathSizeOf(State state) {
+		int slot = slotOf(state);
+
+		return keys[slot * width] == 0 ? -1 : pathSizes[slot];
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @see #movesTo(State, Function)
+	 */
+	String movesTo(State state) {
+		return movesTo(state, board -> this);
+	}
+
+	/**
+	 * Rebuilds the moves that led to a board by undoing the recorded move of every board on the way back,
+	 * up to the one that was reached by none
+	 *
+	 * @param tableOf - the table holding a given board
+	 * @return letters of the moves, see {@link State#MOVES}
+	 */
+	static String movesTo(State state, Function<State, ClosedTable> tableOf) {
+		StringBuilder moves = new StringBuilder();
+		byte move;
+
+		for (State current = state; (move = tableOf.apply(current).moveOf(current)) != State.NO_MOVE; current = current.move(move ^ 1))
+			moves.append(State.MOVES.charAt(move));
+		return moves.reverse().toString();
+	}
+
+	private byte moveOf(State state) {
+		int slot = slotOf(state);
+
+		if (keys[slot * width] == 0)
+			throw new IllegalStateException("no move recorded for " + state);
+		return moves[slot];
+	}
+
+	private int slotOf(State state) {
+		int slot = hash(state) & mask;
+
+		while (keys[slot * width] != 0 && !matches(slot, state))
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private boolean matches(int slot, State state) {
+		for (int word = 0; word < width; word++)
+			if (keys[slot * width + word] != state.keyWord(word))
+				return false;
+		return true;
+	}
+
+	private int hash(State state) {
+		long hash = 0;
+
+		for (int word = 0; word < width; word++)
+			hash = mix(hash, state.keyWord(word));
+		return (int) (hash ^ hash >>> 32);
+	}
+
+	private int hash(long[] keys, int offset) {
+		long hash = 0;
+
+		for (int word = 0; word < width; word++)
+			hash = mix(hash, keys[offset + word]);
+		return (int) (hash ^ hash >>> 32);
+	}
+
+	private static long mix(long hash, long word) {
+		return (hash ^ word) * 0x9E3779B97F4A7C15L;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity * width];
+		pathSizes = new int[capacity];
+		moves = new byte[capacity];
+		mask = capacity - 1;
+	}
+
+	private void resize() {
+		long[] oldKeys = keys;
+		int[] oldPathSizes = pathSizes;
+		byte[] oldMoves = moves;
+
+		allocate((mask + 1) << 1);
+		for (int old = 0; old < oldPathSizes.length; old++) {
+			if (oldKeys[old * width] == 0) continue;
+			int slot = hash(oldKeys, old * width) & mask;
+			while (keys[slot * width] != 0)
+				slot = (slot + 1) & mask;
+			System.arraycopy(oldKeys, old * width, keys, slot * width, width);
+			pathSizes[slot] = oldPathSizes[old];
+			moves[slot] = oldMoves[old];
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package npuzzle.logic;
+
+import java.util.Comparator;
+
+/**
+ * Cost a best-first search orders its open states by, the lowest first
+ */
+@FunctionalInterface
+interface CostPolicy {
+
+	/**
+	 * g: the shortest path first, whatever is left
+	 */
+	CostPolicy UNIFORM = State::getPathSize;
+	/**
+	 * h: the state that looks closest to the goal first, whatever it took to get there
+	 */
+	CostPolicy GREEDY = State::heuristic;
+	/**
+	 * g + h: optimal with an admissible heuristic
+	 */
+	CostPolicy ASTAR = state -> state.getPathSize() + state.heuristic();
+
+	double cost(State state);
+
+	/**
+	 * g + w * h: a weight over 1 trades path length, at most w times the shortest, for fewer expansions
+	 */
+	static CostPolicy weighted(double weight) {
+		return weight == 1 ? ASTAR : state -> state.getPathSize() + weight * state.heuristic();
+	}
+
+	/**
+	 * @return order by cost, ties going to the state with the lower heuristic, which is likely deeper
+	 */
+	default Comparator<State> order() {
+		return Comparator.comparingDouble(this::cost).thenComparingInt(State::heuristic);
+	}
+
+}
@@ -0,0 +1,121 @@
+package npuzzle.logic;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs puzzles on virtual threads where the JVM has them, found by reflection so the sources still build for Java 8,
+ * and on a fixed pool of platform threads where it does not.
+ * <p>
+ * Searches hardly ever block, so a virtual thread per puzzle buys nothing while it searches; what it buys is that
+ * tens of thousands of puzzles may wait for their turn without a platform thread, or a stack, each.
+ * A fair semaphore lets only so many of them search at a time, in the order they were submitted,
+ * so that the memory of half-done searches stays bounded and no puzzle waits behind later ones.
+ * <p>
+ * Virtual threads are daemons, so whoever submits puzzles waits for them before leaving {@code main};
+ * and the JVM does not count what they allocate, so {@link SearchMetrics#getAllocatedBytes} is -1 for their searches.
+ */
+public final class Dispatcher extends AbstractExecutorService {
+
+	/**
+	 * {@code Executors.newVirtualThreadPerTaskExecutor}, null without virtual threads
+	 */
+	private static final Method virtualThreadPerTask = findVirtualThreadPerTask();
+
+	private final ExecutorService threads;
+	private final Semaphore permits;
+
+	private Dispatcher(ExecutorService threads, int parallelism) {
+		this.threads = threads;
+		this.permits = new Semaphore(parallelism, true);
+	}
+
+	/**
+	 * @param parallelism - most tasks running at a time
+	 * @return an executor running tasks in the order they are submitted, at most {@code parallelism} of them at a time
+	 */
+	public static ExecutorService create(int parallelism) {
+		ExecutorService virtual = newVirtualThreadPerTask();
+
+		return virtual == null ? Executors.newFixedThreadPool(parallelism) : new Dispatcher(virtual, parallelism);
+	}
+
+	/**
+	 * @return an executor with a thread for every task, for tasks that mostly wait, like connections
+	 */
+	public static ExecutorService forBlocking() {
+		ExecutorService virtual = newVirtualThreadPerTask();
+
+		return virtual == null ? Executors.newCachedThreadPool() : virtual;
+	}
+
+	public static boolean isVirtual() {
+		return virtualThreadPerTask != null;
+	}
+
+	/**
+	 * A task interrupted while waiting for its turn, as by {@link #shutdownNow}, runs at once with the interrupt
+	 * still set, so that it stops itself, as searches do, and its clean-up is not skipped
+	 */
+	@Override public void execute(Runnable task) {
+		threads.execute(() -> {
+			try {
+				permits.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				task.run();
+				return;
+			}
+			try {
+				task.run();
+			} finally {
+				permits.release();
+			}
+		});
+	}
+
+	@Override public void shutdown() {
+		threads.shutdown();
+	}
+
+	@Override public List<Runnable> shutdownNow() {
+		return threads.shutdownNow();
+	}
+
+	@Override public boolean isShutdown() {
+		return threads.isShutdown();
+	}
+
+	@Override public boolean isTerminated() {
+		return threads.isTerminated();
+	}
+
+	@Override public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return threads.awaitTermination(timeout, unit);
+	}
+
+	private static ExecutorService newVirtualThreadPerTask() {
+		if (virtualThreadPerTask == null) return null;
+		try {
+			return (ExecutorService) virtualThreadPerTask.invoke(null);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the method, if it is there and works: as a preview feature of Java 19 and 20 it throws unless enabled
+	 */
+	private static Method findVirtualThreadPerTask() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			((ExecutorService) method.invoke(null)).shutdown();
+			return method;
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			return null;
+		}
+	}
+
+}
@@ -2,92 +2,112 @@ package npuzzle.logic;
 
 import static npuzzle.utils.Constants.*;
 
-import java.util.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class Evaluator {
 
-	private static final Map<Integer, List<Point>> xyListMap = new HashMap<>();
-    private static final Map<Integer, State> finalStateMap = new HashMap<>();
+	private static final Map<Integer, PatternDatabase> patternDatabaseMap = new ConcurrentHashMap<>();
+	private static final Map<Integer, LinearConflict> linearConflictMap = new ConcurrentHashMap<>();
+	private static final Map<Integer, WalkingDistance> walkingDistanceMap = new ConcurrentHashMap<>();
+
+	private static final Heuristic MANHATTAN_HEURISTIC = additive(goal -> goal.manhattan);
+	private static final Heuristic EUCLIDEAN_HEURISTIC = additive(goal -> goal.euclidean);
+//	Counts how many tiles are not in the correct place
+	private static final Heuristic HAMMING_HEURISTIC = additive(goal -> goal.hamming);
+	private static final Heuristic PDB_HEURISTIC = new Heuristic() {
+		@Override public int evaluate(Board board, int n) {
+			return patternDatabaseMap.get(n).evaluate(board);
+		}
+
+		@Override public int evaluate(Board child, int n, int parentValue, int tile, int from, int to) {
+			return patternDatabaseMap.get(n).evaluate(child, parentValue, tile, from, to);
+		}
+	};
+	private static final Heuristic LINEAR_CONFLICT_HEURISTIC = new Heuristic() {
+		@Override public int evaluate(Board board, int n) {
+			return linearConflictMap.get(n).evaluate(board);
+		}
+
+		@Override public int evaluate(Board child, int n, int parentValue, int tile, int from, int to) {
+			return linearConflictMap.get(n).evaluate(child, parentValue, tile, from, to);
+		}
+	};
+	private static final Heuristic WALKING_DISTANCE_HEURISTIC = (board, n) -> walkingDistanceMap.get(n).evaluate(board);
 
 	@FunctionalInterface
 	public interface Heuristic {
-		int evaluate(State state, int n);
-	}
-
-	private static int manhattan(State state, int n) {
-		List<Point> xyList = xyListMap.get(n);
-		List<Integer> tiles = state.getTiles();
-		Point correctTile;
-		int x, y; int stateEval = 0;
-
-		for (int index = 0; index < tiles.size(); index++) {
-			x = index / n;
-			y = index % n;
-			correctTile = xyList.get(tiles.get(index));
-			stateEval += Math.abs(x - correctTile.x) + Math.abs(y - correctTile.y);
+		int evaluate(Board board, int n);
+
+		/**
+		 * Evaluates a child from the value of its parent, where {@code tile} slid from {@code from} to {@code to}
+		 * and the empty tile moved the other way. Heuristics that can do it without a full pass should override it.
+		 */
+		default int evaluate(Board child, int n, int parentValue, int tile, int from, int to) {
+			return evaluate(child, n);
 		}
-		return stateEval;
 	}
 
-	private static int euclidean(State state, int n) {
-		List<Point> xyList = xyListMap.get(n);
-		List<Integer> tiles = state.getTiles();
-		Point correctTile;
-		int x, y; int stateEval = 0;
-
-		for (int index = 0; index < tiles.size(); index++) {
-			x = index / n;
-			y = index % n;
-			correctTile = xyList.get(tiles.get(index));
-			stateEval += Math.pow(x - correctTile.x, 2) + Math.pow(y - correctTile.y, 2);
-		}
-		return stateEval;
+	/**
+	 * The table of a size with the cost of every tile at every index, see {@link Goal}
+	 */
+	@FunctionalInterface
+	private interface TileCosts {
+		int[] of(Goal goal);
 	}
 
-//	Counts how many tiles are not in the correct place
-	private static int hamming(State state, int n) {
-		List<Integer> target = finalStateMap.get(n).getTiles();
-		int diff = 0;
-
-		for (int i = 0; i < state.getTiles().size(); i++)
-			if (!state.getTiles().get(i).equals(target.get(i)))
-				diff++;
-		return diff;
+	/**
+	 * The empty tile is not counted: it moves on every step, so counting it would overestimate the distance
+	 * and make the heuristic inadmissible.
+	 *
+	 * @return a heuristic that sums independent tile costs, so a move only changes the term of the moved tile
+	 */
+	private static Heuristic additive(TileCosts tileCosts) {
+		return new Heuristic() {
+			@Override public int evaluate(Board board, int n) {
+				int[] cost = tileCosts.of(Goal.of(n));
+				int stateEval = 0, tile, cells = n * n;
+
+				for (int index = 0; index < cells; index++)
+					if ((tile = board.tile(index)) != NO_TILE)
+						stateEval += cost[tile * cells + index];
+				return stateEval;
+			}
+
+			@Override public int evaluate(Board child, int n, int parentValue, int tile, int from, int to) {
+				int[] cost = tileCosts.of(Goal.of(n));
+				int cells = n * n;
+
+				return parentValue - cost[tile * cells + from] + cost[tile * cells + to];
+			}
+		};
 	}
 
 	static Heuristic getHeuristic(String heuristic) {
 		switch (heuristic) {
-			case MANHATTAN: return Evaluator::manhattan;
-			case HAMMING : return Evaluator::hamming;
-			case EUCLIDEAN : return Evaluator::euclidean;
+			case MANHATTAN: return MANHATTAN_HEURISTIC;
+			case HAMMING : return HAMMING_HEURISTIC;
+			case EUCLIDEAN : return EUCLIDEAN_HEURISTIC;
+			case PDB : return PDB_HEURISTIC;
+			case LINEAR_CONFLICT : return LINEAR_CONFLICT_HEURISTIC;
+			case WALKING_DISTANCE : return WALKING_DISTANCE_HEURISTIC;
 			default : return null;
 		}
 	}
 
-	static void addReferenceList(int n) {
-		if (xyListMap.containsKey(n)) return;
-		State finalState = State.createFinal(n);
-		finalStateMap.put(n, finalState);
-		List<Integer> finalOrder = finalState.getTiles();
-		List<Point> xyList = new ArrayList<>(Collections.nCopies(finalOrder.size(), null));
-
-		for (int i = 0; i < finalOrder.size(); i++)
-			xyList.set(finalOrder.get(i), new Point(i / n, i % n));
-
-		xyListMap.put(n, Collections.unmodifiableList(xyList));
-	}
-
-	static State getFinal(int n) {
-	    return finalStateMap.get(n);
-    }
-
-    private static final class Point {
-		private final int x;
-		private final int y;
-		
-		private Point(int x, int y) {
-			this.x = x; this.y = y;
+	/**
+	 * Loads whatever the heuristic needs beyond the {@link Goal} of the size, e.g. pattern database tables
+	 */
+	static void loadTables(String heuristic, int n) {
+		Goal.of(n);
+		switch (heuristic) {
+			case PDB : patternDatabaseMap.computeIfAbsent(n, PatternDatabase::load);
+				break;
+			case LINEAR_CONFLICT : linearConflictMap.computeIfAbsent(n, LinearConflict::new);
+				break;
+			case WALKING_DISTANCE : walkingDistanceMap.computeIfAbsent(n, WalkingDistance::new);
+				break;
 		}
 	}
-    
+
 }
@@ -1,7 +1,9 @@
 package npuzzle.logic;
 
+import npuzzle.io.Input;
 import npuzzle.io.Output;
 
+import java.nio.file.Paths;
 import java.util.*;
 
 import static npuzzle.utils.Constants.*;
@@ -12,7 +14,7 @@ class Executor {
 	public interface Algorithm {
 		/**
 		 * @param initial - the Starting/Initial State from input
-		 * @return all parents chained together -> form a list of all moves made to achieve the final state
+		 * @return the moves made to achieve the final state
 		 */
 		Output execute(State initial);
 	}
@@ -30,82 +32,178 @@ class Executor {
 	 *
 	 * @see Algorithm#execute(State)
 	 */
-	private static Output executeGreedy(State initial) {
+	private static Output executeGreedy(State initial, SearchMetrics metrics, SearchControl control) {
 		int maxNumberOfStates = 0;
-		Set<State> closedSet = new HashSet<>();
-		Set<State> children;
+		long expansions = 0;
+		ClosedTable closedSet = new ClosedTable(initial.getN());
+		List<State> children;
 		State current = initial;
 
 		while (current.isNotFinal()) {
+			if (++expansions % SearchControl.INTERVAL == 0)
+				control.checkpoint(current.getPathSize() + current.heuristic());
+			metrics.expanded();
+			long since = metrics.clock();
 			closedSet.add(current);
+			metrics.hashed(since);
 			children = current.createChildren();
-			children.removeAll(closedSet);
-			current = Collections.min(children);
+			since = metrics.clock();
+			for (Iterator<State> child = children.iterator(); child.hasNext(); ) {
+				metrics.generated();
+				if (closedSet.contains(child.next())) {
+					child.remove();
+					metrics.duplicate();
+				}
+			}
+			metrics.hashed(since);
+			current = Collections.min(children, CostPolicy.GREEDY.order());
 			if (closedSet.size() > maxNumberOfStates)
 				maxNumberOfStates = closedSet.size();
+			metrics.sizes(0, closedSet.size());
 		}
 
-		return Output.create(0, maxNumberOfStates, current.collectPath());
+		closedSet.add(current);
+		return Output.create(0, maxNumberOfStates, initial, closedSet.movesTo(current));
 	}
 
-	private static Output executeAstar(State initial) {
+	/**
+	 * Keeps every open state, so with an admissible heuristic and {@link CostPolicy#ASTAR} the path found is the shortest;
+	 * a budget runs the memory-bounded {@link BoundedSearch} instead.
+	 */
+	private static Output executeAstar(State initial, CostPolicy policy, String kind, SearchMetrics metrics, SearchControl control) {
 		int everInOpenSet = 1, maxNumberOfStates = 0, currentNumberOfStates = 0;
-		Set<State> closedSet = new HashSet<>();
-		Set<State> openSet = new HashSet<>();
-		Set<State> children;
-		State current = initial;
+		long expansions = 0;
+		ClosedTable closedSet = new ClosedTable(initial.getN());
+		OpenList openList = OpenList.create(kind, policy);
+		State current = initial, next;
 
 		while (current.isNotFinal()) {
-			closedSet.add(current);
-			openSet.remove(current);
-			children = current.createChildren();
-			children.removeAll(closedSet);
-			openSet.addAll(children);
-			everInOpenSet += children.size();
-			if (openSet.isEmpty()) break;
-			current = Collections.min(openSet);
-			currentNumberOfStates = openSet.size() + closedSet.size();
+			if (++expansions % SearchControl.INTERVAL == 0)
+				control.checkpoint(current.getPathSize() + current.heuristic());
+			everInOpenSet += expand(current, closedSet, openList, metrics);
+			long since = metrics.clock();
+			next = openList.poll();
+			metrics.queued(since);
+			if (next == null)
+				return Output.create(everInOpenSet, maxNumberOfStates, initial, null);
+			current = next;
+			currentNumberOfStates = openList.size() + closedSet.size();
 			if (currentNumberOfStates > maxNumberOfStates)
 				maxNumberOfStates = currentNumberOfStates;
-			if ( openSet.size() >= 2000 ) {
-				List<State> t = new ArrayList<>(openSet);
-				t.sort(Comparator.naturalOrder());
-				openSet = new HashSet<>(t.subList(0, 1000));
-			}
+			metrics.sizes(openList.size(), closedSet.size());
 		}
 
-		return Output.create(everInOpenSet, maxNumberOfStates, current.collectPath());
+		closedSet.add(current);
+		return Output.create(everInOpenSet, maxNumberOfStates, initial, closedSet.movesTo(current));
 	}
 
-	private static Output executeUniform(State initial) {
+	private static Output executeUniform(State initial, String kind, SearchMetrics metrics, SearchControl control) {
 		int everInOpenSet = 1, maxNumberOfStates = 0, currentNumberOfStates = 0;
-		Set<State> closedSet = new HashSet<>();
-		Set<State> openSet = new HashSet<>();
-		Set<State> children;
-		State current = initial;
+		long expansions = 0;
+		ClosedTable closedSet = new ClosedTable(initial.getN());
+		OpenList openList = OpenList.create(kind, CostPolicy.UNIFORM);
+		State current = initial, next;
 
 		while (current.isNotFinal()) {
-			closedSet.add(current);
-			openSet.remove(current);
-			children = current.createChildren();
-			children.removeAll(closedSet);
-			openSet.addAll(children);
-			everInOpenSet += children.size();
-			if (openSet.isEmpty()) break;
-			current = Collections.min(openSet);
-			currentNumberOfStates = openSet.size() + closedSet.size();
+			if (++expansions % SearchControl.INTERVAL == 0)
+				control.checkpoint(current.getPathSize() + current.heuristic());
+			everInOpenSet += expand(current, closedSet, openList, metrics);
+			long since = metrics.clock();
+			next = openList.poll();
+			metrics.queued(since);
+			if (next == null)
+				return Output.create(everInOpenSet, maxNumberOfStates, initial, null);
+			current = next;
+			currentNumberOfStates = openList.size() + closedSet.size();
 			if (currentNumberOfStates > maxNumberOfStates)
 				maxNumberOfStates = currentNumberOfStates;
+			metrics.sizes(openList.size(), closedSet.size());
+		}
+
+		closedSet.add(current);
+		return Output.create(everInOpenSet, maxNumberOfStates, initial, closedSet.movesTo(current));
+	}
+
+	/**
+	 * Closes the state and opens its children that are neither closed nor open by a path as short
+	 *
+	 * @return children opened
+	 */
+	private static int expand(State current, ClosedTable closedSet, OpenList openList, SearchMetrics metrics) {
+		int opened = 0;
+		long since = metrics.clock();
+
+		metrics.expanded();
+		closedSet.add(current);
+		metrics.hashed(since);
+		for (State child : current.createChildren()) {
+			metrics.generated();
+			since = metrics.clock();
+			boolean closed = closedSet.contains(child);
+			metrics.hashed(since);
+			if (closed) {
+				metrics.duplicate();
+				continue;
+			}
+			int open = openList.size();
+			since = metrics.clock();
+			boolean offered = openList.offer(child);
+			metrics.queued(since);
+			if (!offered) {
+				metrics.duplicate();
+				continue;
+			}
+			opened++;
+			if (openList.size() == open)
+				metrics.reopened();
 		}
+		return opened;
+	}
+
+	/**
+	 * @return the algorithm of the input, run within its node budget, on disk, within its time budget or with its weight if it has one
+	 */
+	static Algorithm getAlgorithm(Input input) {
+		return getAlgorithm(input, SearchMetrics.NONE, SearchControl.NONE);
+	}
 
-		return Output.create(everInOpenSet, maxNumberOfStates, current.collectPath());
+	/**
+	 * @param metrics - filled by astar, uniform and greedy as they search; the other algorithms leave them as they are
+	 * @param control - checked by every algorithm as it expands states
+	 * @see #getAlgorithm(Input)
+	 */
+	static Algorithm getAlgorithm(Input input, SearchMetrics metrics, SearchControl control) {
+		if (input.getDisk() != null)
+			return initial -> LayeredSearch.execute(initial, Paths.get(input.getDisk()), control);
+		if (input.getMaxNodes() > 0)
+			return initial -> BoundedSearch.execute(initial, input.getMaxNodes(), control);
+		if (input.getTimeBudget() > 0)
+			return initial -> AnytimeSearch.execute(initial, input.getTimeBudget(), control);
+		if (input.getWeight() > 0)
+			return initial -> executeAstar(initial, CostPolicy.weighted(input.getWeight()), input.getOpenList(), metrics, control);
+		return getAlgorithm(input.getAlgorithm(), input.getOpenList(), metrics, control);
 	}
 
 	static Algorithm getAlgorithm(String algorithm) {
+		return getAlgorithm(algorithm, HEAP);
+	}
+
+	/**
+	 * @param openList - {@link npuzzle.utils.Constants#HEAP} or {@link npuzzle.utils.Constants#BUCKET}, for astar and uniform
+	 */
+	static Algorithm getAlgorithm(String algorithm, String openList) {
+		return getAlgorithm(algorithm, openList, SearchMetrics.NONE, SearchControl.NONE);
+	}
+
+	private static Algorithm getAlgorithm(String algorithm, String openList, SearchMetrics metrics, SearchControl control) {
 		switch (algorithm) {
-			case ASTAR : return Executor::executeAstar;
-			case GREEDY : return Executor::executeGreedy;
-			case UNIFORM : return Executor::executeUniform;
+			case ASTAR : return initial -> executeAstar(initial, CostPolicy.ASTAR, openList, metrics, control);
+			case GREEDY : return initial -> executeGreedy(initial, metrics, control);
+			case UNIFORM : return initial -> executeUniform(initial, openList, metrics, control);
+			case IDA : return initial -> IdaSearch.execute(initial, control);
+			case HDA : return initial -> ParallelSearch.execute(initial, control);
+			case BIDIRECTIONAL : return initial -> BidirectionalSearch.execute(initial, control);
+			case ARA : return initial -> AnytimeSearch.execute(initial, 0, control);
 			default : return null;
 		}
 	}
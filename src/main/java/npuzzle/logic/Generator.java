@@ -0,0 +1,127 @@
+package npuzzle.logic;
+
+import com.google.common.primitives.Ints;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static npuzzle.utils.Constants.NO_TILE;
+
+/**
+ * Random boards, solvable by construction: either random walks from the final board
+ * or shuffles drawn uniformly from the solvable boards. Nothing is ever shuffled again.
+ */
+public final class Generator {
+
+	/**
+	 * spreads the seeds of consecutive boards, see {@link #boards}
+	 */
+	private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+	private Generator() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * @param steps - random moves away from the final board, none undoing the one before; 0 for a uniform shuffle
+	 * @return tiles of a solvable board of size n
+	 */
+	public static List<Integer> board(int n, int steps, SplittableRandom random) {
+		return Ints.asList(steps == 0 ? shuffle(n, random) : walk(n, steps, random));
+	}
+
+	/**
+	 * Makes the boards in parallel, each with its own random numbers drawn from the seed and its position,
+	 * so the same arguments always give the same boards in the same order
+	 *
+	 * @see #board
+	 */
+	public static Stream<List<Integer>> boards(int n, int steps, long count, long seed) {
+		return LongStream.range(0, count).parallel()
+				.mapToObj(i -> board(n, steps, new SplittableRandom(seed + i * SEED_STEP)));
+	}
+
+	/**
+	 * Fisher-Yates shuffle, then a swap of the first two tiles if it came out unsolvable. For a given position of the
+	 * empty tile, that swap pairs every unsolvable board with a solvable one, so the solvable ones stay equally likely.
+	 */
+	private static int[] shuffle(int n, SplittableRandom random) {
+		int[] tiles = finalTiles(n);
+
+		for (int i = tiles.length - 1; i > 0; i--)
+			swap(tiles, i, random.nextInt(i + 1));
+		if (State.isNotSolvable(new Tiles(tiles, n))) {
+			int first = tiles[0] == NO_TILE ? 1 : 0, second = tiles[first + 1] == NO_TILE ? first + 2 : first + 1;
+			swap(tiles, first, second);
+		}
+		return tiles;
+	}
+
+	private static int[] walk(int n, int steps, SplittableRandom random) {
+		int[] tiles = finalTiles(n), targets = new int[4];
+		int blank = indexOf(tiles, NO_TILE), previous = -1;
+
+		for (int step = 0; step < steps; step++) {
+			int count = 0;
+			if (blank >= n) targets[count++] = blank - n;
+			if (blank < n * n - n) targets[count++] = blank + n;
+			if (blank % n != 0) targets[count++] = blank - 1;
+			if (blank % n != n - 1) targets[count++] = blank + 1;
+
+			int target;
+			do target = targets[random.nextInt(count)];
+			while (target == previous);
+			swap(tiles, blank, target);
+			previous = blank;
+			blank = target;
+		}
+		return tiles;
+	}
+
+	private static int[] finalTiles(int n) {
+		return Goal.of(n).tiles();
+	}
+
+	private static int indexOf(int[] tiles, int tile) {
+		for (int i = 0; i < tiles.length; i++)
+			if (tiles[i] == tile) return i;
+		return -1;
+	}
+
+	private static void swap(int[] tiles, int i, int j) {
+		int tile = tiles[i];
+
+		tiles[i] = tiles[j];
+		tiles[j] = tile;
+	}
+
+	/**
+	 * Board over the tiles being made, to check them without a {@link State}
+	 */
+	private static final class Tiles implements Board {
+
+		private final int[] tiles;
+		private final int n;
+
+		private Tiles(int[] tiles, int n) {
+			this.tiles = tiles;
+			this.n = n;
+		}
+
+		@Override public int tile(int index) {
+			return tiles[index];
+		}
+
+		@Override public int getBlank() {
+			return indexOf(tiles, NO_TILE);
+		}
+
+		@Override public int getN() {
+			return n;
+		}
+
+	}
+
+}
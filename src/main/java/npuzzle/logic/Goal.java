@@ -0,0 +1,68 @@
+package npuzzle.logic;
+
+import static npuzzle.utils.Constants.MAX_N;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The final board of a size and everything worked out from it once: where every tile belongs,
+ * the parity of the board, and the cost of every tile at every index for the additive heuristics,
+ * laid out as {@code cost[tile * n * n + index]}.
+ * <p>
+ * Nothing is changed once made, so a goal is shared by every thread without a lock;
+ * two threads asking for a new size at once may both make it, and all but one are dropped.
+ */
+final class Goal {
+
+	private static final AtomicReferenceArray<Goal> goals = new AtomicReferenceArray<>(MAX_N + 1);
+
+	final State state;
+	final int parity;
+	/**
+	 * goal row and column of every tile
+	 */
+	final int[] row, column;
+	final int[] manhattan, euclidean, hamming;
+	private final int[] tiles;
+
+	private Goal(int n) {
+		int cells = n * n;
+
+		this.state = State.createFinal(n);
+		this.parity = State.parity(state);
+		this.tiles = new int[cells];
+		this.row = new int[cells];
+		this.column = new int[cells];
+		this.manhattan = new int[cells * cells];
+		this.euclidean = new int[cells * cells];
+		this.hamming = new int[cells * cells];
+		for (int index = 0; index < cells; index++) {
+			tiles[index] = state.tile(index);
+			row[tiles[index]] = index / n;
+			column[tiles[index]] = index % n;
+		}
+		for (int tile = 0; tile < cells; tile++)
+			for (int index = 0; index < cells; index++) {
+				int dx = index / n - row[tile], dy = index % n - column[tile];
+				manhattan[tile * cells + index] = Math.abs(dx) + Math.abs(dy);
+				euclidean[tile * cells + index] = dx * dx + dy * dy;
+				hamming[tile * cells + index] = dx == 0 && dy == 0 ? 0 : 1;
+			}
+	}
+
+	static Goal of(int n) {
+		Goal goal = goals.get(n);
+
+		if (goal == null && !goals.compareAndSet(n, null, goal = new Goal(n)))
+			goal = goals.get(n);
+		return goal;
+	}
+
+	/**
+	 * @return a copy of the tiles of the final board, to be changed at will
+	 */
+	int[] tiles() {
+		return tiles.clone();
+	}
+
+}
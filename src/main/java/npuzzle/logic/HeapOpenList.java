@@ -0,0 +1,42 @@
+package npuzzle.logic;
+
+import java.util.*;
+
+/**
+ * {@link OpenList} as a binary heap ordered by a {@link CostPolicy}, for costs of any kind
+ */
+final class HeapOpenList implements OpenList {
+
+	private final PriorityQueue<State> heap;
+	private final Map<State, State> index = new HashMap<>();
+
+	HeapOpenList(CostPolicy policy) {
+		this.heap = new PriorityQueue<>(policy.order());
+	}
+
+	@Override public boolean offer(State state) {
+		State known = index.get(state);
+
+		if (known != null && known.getPathSize() <= state.getPathSize())
+			return false;
+		index.put(state, state);
+		heap.add(state);
+		return true;
+	}
+
+	@Override public State poll() {
+		State state;
+
+		while ((state = heap.poll()) != null)
+			if (index.get(state) == state) {
+				index.remove(state);
+				return state;
+			}
+		return null;
+	}
+
+	@Override public int size() {
+		return index.size();
+	}
+
+}
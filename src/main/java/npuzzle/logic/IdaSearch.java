@@ -0,0 +1,141 @@
+package npuzzle.logic;
+
+import npuzzle.io.Output;
+
+import java.util.Arrays;
+
+import static npuzzle.utils.Constants.NO_TILE;
+
+/**
+ * IDA*: a series of depth-first searches bounded by f = g + h, each one raising the bound
+ * to the smallest f that exceeded the previous bound.
+ * <p>
+ * Works on a single mutable board and undoes every move on the way back, so nothing is allocated per node
+ * and memory is proportional to the depth of the solution. Moves that undo the previous one are never tried.
+ */
+final class IdaSearch implements Board {
+
+	private static final int FOUND = -1;
+
+	private final State initial;
+	private final SearchControl control;
+	private final Evaluator.Heuristic heuristic;
+	private final int n;
+	private final int[] tiles;
+	private final int[] goal;
+	private int blank;
+	private int misplaced;
+	private int everInOpenSet;
+	private int maxDepth;
+	private int depth;
+	private long expansions;
+	/**
+	 * directions the empty tile moved in along the current path
+	 */
+	private byte[] path = new byte[0];
+
+	private IdaSearch(State initial, SearchControl control) {
+		this.initial = initial;
+		this.control = control;
+		this.heuristic = initial.getEvaluator();
+		this.n = initial.getN();
+		this.tiles = new int[n * n];
+		this.goal = new int[n * n];
+		this.blank = initial.getBlank();
+
+		State finalState = Goal.of(n).state;
+		for (int i = 0; i < tiles.length; i++) {
+			tiles[i] = initial.tile(i);
+			goal[i] = finalState.tile(i);
+			if (tiles[i] != NO_TILE && tiles[i] != goal[i])
+				misplaced++;
+		}
+	}
+
+	static Output execute(State initial, SearchControl control) {
+		return new IdaSearch(initial, control).execute();
+	}
+
+	private Output execute() {
+		int bound = initial.heuristic();
+
+		while ((bound = search(0, bound, initial.heuristic(), State.NO_MOVE)) != FOUND);
+
+		StringBuilder moves = new StringBuilder(depth);
+		for (int i = 0; i < depth; i++)
+			moves.append(State.MOVES.charAt(path[i]));
+		return Output.create(everInOpenSet, maxDepth + 1, initial, moves.toString());
+	}
+
+	/**
+	 * @return {@link #FOUND} or the smallest f over the bound met in this iteration
+	 */
+	private int search(int g, int bound, int h, int lastDirection) {
+		int f = g + h;
+
+		if (f > bound) return f;
+		if (misplaced == 0) {
+			depth = g;
+			return FOUND;
+		}
+		if (g >= path.length)
+			path = Arrays.copyOf(path, Math.max(g + 1, bound + 1));
+		if (g > maxDepth)
+			maxDepth = g;
+		if (++expansions % SearchControl.INTERVAL == 0)
+			control.checkpoint(f);
+
+		int min = Integer.MAX_VALUE, from = blank, to, tile, result;
+		for (byte direction = State.UP; direction <= State.RIGHT; direction++) {
+			if ((direction ^ 1) == lastDirection || (to = neighbour(direction)) < 0)
+				continue;
+			tile = tiles[to];
+			slide(to);
+			everInOpenSet++;
+			path[g] = direction;
+			result = search(g + 1, bound, heuristic == null ? 0 : heuristic.evaluate(this, n, h, tile, to, from), direction);
+			if (result == FOUND) return FOUND;
+			slide(from);
+			if (result < min) min = result;
+		}
+		return min;
+	}
+
+	/**
+	 * @return index of the tile that would slide into the empty cell, or -1 if there is none in that direction
+	 */
+	private int neighbour(int direction) {
+		switch (direction) {
+			case State.UP : return blank / n != 0 ? blank - n : -1;
+			case State.DOWN : return blank / n != n - 1 ? blank + n : -1;
+			case State.LEFT : return blank % n != 0 ? blank - 1 : -1;
+			default : return blank % n != n - 1 ? blank + 1 : -1;
+		}
+	}
+
+	/**
+	 * Moves the tile at {@code index} into the empty cell
+	 */
+	private void slide(int index) {
+		int tile = tiles[index];
+
+		if (tile != goal[index]) misplaced--;
+		if (tile != goal[blank]) misplaced++;
+		tiles[blank] = tile;
+		tiles[index] = NO_TILE;
+		blank = index;
+	}
+
+	@Override public int tile(int index) {
+		return tiles[index];
+	}
+
+	@Override public int getBlank() {
+		return blank;
+	}
+
+	@Override public int getN() {
+		return n;
+	}
+
+}
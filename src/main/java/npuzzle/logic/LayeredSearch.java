@@ -0,0 +1,340 @@
+package npuzzle.logic;
+
+import npuzzle.io.Output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Breadth-first search with its frontier on disk, for boards whose layers outgrow the heap.
+ * Every layer is a file of boards as sorted key words (see {@link State#keyWord}), each board once.
+ * <p>
+ * The next layer is made from the children of the current one: they are sorted in runs that fit the heap,
+ * then the runs are merged, skipping duplicates and the boards of the current and previous layers.
+ * Since every move can be undone, no older board can come back. Once the goal is reached, the path is
+ * rebuilt backwards by looking up, in every earlier layer, the neighbour the current board came from.
+ */
+final class LayeredSearch {
+
+	/**
+	 * children sorted in memory at a time, before they are written as a run
+	 */
+	private static final int RUN_SIZE = 1 << 18;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final Comparator<long[]> KEY_ORDER = LayeredSearch::compare;
+
+	private final int n;
+	private final int width;
+	private final Path directory;
+	private final long[] goal;
+	private final SearchControl control;
+	private long everInOpenSet;
+	private long largestLayer;
+	private long expansions;
+
+	private LayeredSearch(int n, Path directory, SearchControl control) {
+		this.n = n;
+		this.control = control;
+		this.width = State.keyWidth(n);
+		this.directory = directory;
+		this.goal = key(Goal.of(n).state);
+	}
+
+	/**
+	 * @param parent - directory the layers of this search are kept in a new directory of, removed once it is done
+	 */
+	static Output execute(State initial, Path parent, SearchControl control) {
+		try {
+			Path directory = Files.createTempDirectory(Files.createDirectories(parent), "layers");
+			try {
+				return new LayeredSearch(initial.getN(), directory, control).search(initial);
+			} finally {
+				delete(directory);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot keep search layers in " + parent, e);
+		}
+	}
+
+	private Output search(State initial) throws IOException {
+		int depth = 0;
+
+		try (LayerWriter first = new LayerWriter(layer(0))) {
+			first.write(key(initial));
+		}
+		everInOpenSet = largestLayer = 1;
+		if (!initial.isNotFinal())
+			return Output.create(1, 1, initial, "");
+
+		while (true) {
+			Boolean reached = expand(depth++);
+			if (reached == null)
+				return Output.create(count(everInOpenSet), count(largestLayer), initial, null);
+			if (reached)
+				return Output.create(count(everInOpenSet), count(largestLayer), initial, movesTo(depth));
+		}
+	}
+
+	/**
+	 * Writes the layer after the given one
+	 *
+	 * @return true if it holds the goal, null if it is empty
+	 */
+	private Boolean expand(int depth) throws IOException {
+		List<Path> runs = new ArrayList<>();
+		long[][] run = new long[RUN_SIZE][];
+		int size = 0;
+
+		try (LayerReader layer = new LayerReader(layer(depth))) {
+			for (; layer.hasNext(); layer.next()) {
+				if (++expansions % SearchControl.INTERVAL == 0)
+					control.checkpoint(depth);
+				for (State child : State.fromKey(layer.key(), n).createChildren()) {
+					if (size == RUN_SIZE) {
+						runs.add(writeRun(run, size, runs.size()));
+						size = 0;
+					}
+					run[size++] = key(child);
+				}
+			}
+		}
+		if (size > 0)
+			runs.add(writeRun(run, size, runs.size()));
+		run = null; // the merge only needs the buffers of the readers
+
+		boolean reached = false;
+		long written = 0;
+		PriorityQueue<LayerReader> merged = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> compare(a.key(), b.key()));
+		try (LayerWriter next = new LayerWriter(layer(depth + 1));
+			 LayerReader current = new LayerReader(layer(depth));
+			 LayerReader previous = new LayerReader(depth == 0 ? null : layer(depth - 1))) {
+			for (Path path : runs) {
+				LayerReader reader = new LayerReader(path);
+				if (reader.hasNext()) merged.add(reader);
+				else reader.close();
+			}
+			long[] last = null;
+			while (!merged.isEmpty()) {
+				LayerReader smallest = merged.poll();
+				long[] key = smallest.key().clone();
+				if (smallest.next()) merged.add(smallest);
+				else smallest.close();
+
+				if (last != null && compare(last, key) == 0) continue;
+				last = key;
+				if (current.skipTo(key) || previous.skipTo(key)) continue;
+				next.write(key);
+				written++;
+				if (compare(key, goal) == 0) {
+					reached = true;
+					break;
+				}
+			}
+		} finally {
+			merged.forEach(LayerReader::closeQuietly);
+			for (Path path : runs)
+				Files.deleteIfExists(path);
+		}
+
+		everInOpenSet += written;
+		largestLayer = Math.max(largestLayer, written);
+		return written == 0 ? null : reached;
+	}
+
+	private Path writeRun(long[][] run, int size, int index) throws IOException {
+		Path path = directory.resolve("run-" + index);
+
+		Arrays.sort(run, 0, size, KEY_ORDER);
+		try (LayerWriter writer = new LayerWriter(path)) {
+			for (int i = 0; i < size; i++)
+				writer.write(run[i]);
+		}
+		return path;
+	}
+
+	/**
+	 * @param depth - layer of the goal
+	 */
+	private String movesTo(int depth) throws IOException {
+		StringBuilder moves = new StringBuilder(depth);
+		State current = State.fromKey(goal, n);
+
+		for (int layer = depth - 1; layer >= 0; layer--) {
+			current = neighbourIn(layer(layer), current);
+			moves.append(State.MOVES.charAt(current.getMove() ^ 1));
+		}
+		return moves.reverse().toString();
+	}
+
+	/**
+	 * @return the neighbour of the board found in the layer, reached from the board by its move
+	 */
+	private State neighbourIn(Path layer, State board) throws IOException {
+		for (State neighbour : board.createChildren())
+			if (contains(layer, key(neighbour)))
+				return neighbour;
+		throw new IllegalStateException("no board of " + layer.getFileName() + " leads to " + board);
+	}
+
+	/**
+	 * Binary search over the records of a sorted layer
+	 */
+	private boolean contains(Path layer, long[] key) throws IOException {
+		try (FileChannel channel = FileChannel.open(layer, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(width * Long.BYTES);
+			long[] probe = new long[width];
+			long low = 0, high = channel.size() / buffer.capacity() - 1;
+
+			while (low <= high) {
+				long middle = (low + high) >>> 1;
+				buffer.clear();
+				while (buffer.hasRemaining() && channel.read(buffer, middle * buffer.capacity() + buffer.position()) > 0);
+				buffer.flip();
+				for (int word = 0; word < width; word++)
+					probe[word] = buffer.getLong();
+				int order = compare(probe, key);
+				if (order == 0) return true;
+				if (order < 0) low = middle + 1;
+				else high = middle - 1;
+			}
+			return false;
+		}
+	}
+
+	private Path layer(int depth) {
+		return directory.resolve("layer-" + depth);
+	}
+
+	private long[] key(State state) {
+		long[] key = new long[width];
+
+		for (int word = 0; word < width; word++)
+			key[word] = state.keyWord(word);
+		return key;
+	}
+
+	private static int compare(long[] a, long[] b) {
+		for (int word = 0; word < a.length; word++) {
+			int order = Long.compare(a[word], b[word]);
+			if (order != 0) return order;
+		}
+		return 0;
+	}
+
+	private static int count(long states) {
+		return (int) Math.min(states, Integer.MAX_VALUE);
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Iterator<Path> file = files.iterator(); file.hasNext(); )
+				Files.deleteIfExists(file.next());
+		}
+		Files.deleteIfExists(directory);
+	}
+
+	/**
+	 * Sequential reader of the records of a run or a layer
+	 */
+	private final class LayerReader implements Closeable {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE / (width * Long.BYTES) * (width * Long.BYTES));
+		private final long[] key = new long[width];
+		private boolean hasNext;
+
+		/**
+		 * @param file - null for a reader of no records
+		 */
+		private LayerReader(Path file) throws IOException {
+			this.channel = file == null ? null : FileChannel.open(file, StandardOpenOption.READ);
+			buffer.flip();
+			next();
+		}
+
+		private boolean hasNext() {
+			return hasNext;
+		}
+
+		/**
+		 * @return the current record, valid until the next one is read
+		 */
+		private long[] key() {
+			return key;
+		}
+
+		private boolean next() throws IOException {
+			if (!buffer.hasRemaining() && channel != null) {
+				buffer.clear();
+				while (buffer.hasRemaining() && channel.read(buffer) > 0);
+				buffer.flip();
+			}
+			hasNext = buffer.hasRemaining();
+			for (int word = 0; hasNext && word < width; word++)
+				key[word] = buffer.getLong();
+			return hasNext;
+		}
+
+		/**
+		 * Moves past the records below the key, which is never lower than the key of a previous call
+		 *
+		 * @return true if the key is one of the records
+		 */
+		private boolean skipTo(long[] target) throws IOException {
+			while (hasNext && compare(key, target) < 0)
+				next();
+			return hasNext && compare(key, target) == 0;
+		}
+
+		private void closeQuietly() {
+			try {
+				close();
+			} catch (IOException ignored) {
+				// only read from
+			}
+		}
+
+		@Override public void close() throws IOException {
+			if (channel != null)
+				channel.close();
+		}
+
+	}
+
+	private final class LayerWriter implements Closeable {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+		private LayerWriter(Path file) throws IOException {
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		}
+
+		private void write(long[] key) throws IOException {
+			if (buffer.remaining() < key.length * Long.BYTES)
+				flush();
+			for (long word : key)
+				buffer.putLong(word);
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			buffer.clear();
+		}
+
+		@Override public void close() throws IOException {
+			flush();
+			channel.close();
+		}
+
+	}
+
+}
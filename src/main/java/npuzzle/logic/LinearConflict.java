@@ -0,0 +1,86 @@
+package npuzzle.logic;
+
+import static npuzzle.utils.Constants.NO_TILE;
+
+/**
+ * Manhattan distance plus linear conflicts.
+ * <p>
+ * Two tiles that are both in their goal row (or column) but in reversed order cannot pass each other:
+ * one of them has to leave the line and come back, two moves Manhattan does not count.
+ * For every line only the fewest tiles that must leave are charged, i.e. those outside the longest run
+ * already in goal order, which keeps the heuristic admissible.
+ */
+final class LinearConflict {
+
+	private static final int ROW = 1;
+
+	private final int n;
+	private final int[] goalRow;
+	private final int[] goalColumn;
+	/**
+	 * per-thread buffer for the longest ordered run of a line
+	 */
+	private final ThreadLocal<int[]> tails;
+
+	LinearConflict(int n) {
+		Goal goal = Goal.of(n);
+
+		this.n = n;
+		this.goalRow = goal.row;
+		this.goalColumn = goal.column;
+		this.tails = ThreadLocal.withInitial(() -> new int[n]);
+	}
+
+	int evaluate(Board board) {
+		int value = 0, tile;
+
+		for (int index = 0; index < n * n; index++)
+			if ((tile = board.tile(index)) != NO_TILE)
+				value += Math.abs(index / n - goalRow[tile]) + Math.abs(index % n - goalColumn[tile]);
+		for (int line = 0; line < n; line++)
+			value += conflicts(board, line, ROW, -1, -1) + conflicts(board, line, n, -1, -1);
+		return value;
+	}
+
+	/**
+	 * A horizontal move keeps the order of tiles in every row and only changes the two columns involved,
+	 * and the other way round for a vertical one, so only those two lines are recounted
+	 */
+	int evaluate(Board child, int parentValue, int tile, int from, int to) {
+		int value = parentValue
+				- Math.abs(from / n - goalRow[tile]) - Math.abs(from % n - goalColumn[tile])
+				+ Math.abs(to / n - goalRow[tile]) + Math.abs(to % n - goalColumn[tile]);
+
+		if (from / n == to / n)
+			return value + conflicts(child, from % n, n, -1, -1) + conflicts(child, to % n, n, -1, -1)
+					- conflicts(child, from % n, n, from, to) - conflicts(child, to % n, n, from, to);
+		return value + conflicts(child, from / n, ROW, -1, -1) + conflicts(child, to / n, ROW, -1, -1)
+				- conflicts(child, from / n, ROW, from, to) - conflicts(child, to / n, ROW, from, to);
+	}
+
+	/**
+	 * Reads the board as if the tiles at {@code swapA} and {@code swapB} were swapped, which turns a child into its parent.
+	 *
+	 * @param step - {@link #ROW} to walk along a row, n to walk down a column
+	 * @return moves needed to resolve the conflicts of the line
+	 */
+	private int conflicts(Board board, int line, int step, int swapA, int swapB) {
+		boolean isRow = step == ROW;
+		int[] tails = this.tails.get();
+		int start = isRow ? line * n : line, length = 0, inLine = 0;
+
+		for (int i = 0, cell = start; i < n; i++, cell += step) {
+			int tile = board.tile(cell == swapA ? swapB : cell == swapB ? swapA : cell);
+			if (tile == NO_TILE || (isRow ? goalRow[tile] : goalColumn[tile]) != line)
+				continue;
+			inLine++;
+			// patience sorting: tails[k] is the smallest goal position ending an ordered run of length k + 1
+			int goal = isRow ? goalColumn[tile] : goalRow[tile], k = 0;
+			while (k < length && tails[k] < goal) k++;
+			tails[k] = goal;
+			if (k == length) length++;
+		}
+		return 2 * (inLine - length);
+	}
+
+}
@@ -3,13 +3,17 @@ package npuzzle.logic;
 import com.google.common.base.Stopwatch;
 import npuzzle.io.*;
 
+import java.nio.file.Paths;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 
 public class Npuzzle implements Callable<Output> {
 
 	private final Input input;
 	private Output output;
+	private ProgressListener listener;
 
 	private Npuzzle(Input input) {
 		this.input = input;
@@ -19,21 +23,83 @@ public class Npuzzle implements Callable<Output> {
 		return new Npuzzle(input);
 	}
 
+	/**
+	 * @param listener - told how the search is getting on while it runs
+	 */
+	public Npuzzle setListener(ProgressListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
 	@Override
 	public Output call() {
+		if (solve() != null) {
+			Writer.write(input, output, false);
+			Writer.writeMetrics(output);
+		}
+		return output;
+	}
+
+	/**
+	 * Solves the puzzle without writing the result
+	 *
+	 * @return null if the input is not valid
+	 * @throws CancellationException if the thread was interrupted while searching
+	 */
+	Output solve() {
 		Stopwatch stopwatch = Stopwatch.createStarted();
 
 		if (!Reader.createWith(input).fillInput()) return null;
 
 		State initial = input.getInitialState();
-		Evaluator.addReferenceList(initial.getN());
-		Executor.Algorithm executor = Objects.requireNonNull(Executor.getAlgorithm(input.getAlgorithm()));
-		output = executor.execute(initial);
+		SolutionCache cache = input.getCache() == null ? null : SolutionCache.open(Paths.get(input.getCache()));
+		// a known path is replayed without the heuristic, so a hit never waits for its tables
+		output = cache == null ? null : cache.get(input, initial.withoutEvaluator());
+		if (output == null) {
+			Evaluator.loadTables(input.getHeuristic(), initial.getN());
+			SearchMetrics metrics = input.getMetrics() == null ? SearchMetrics.NONE : SearchMetrics.create();
+			SearchControl control = createControl(stopwatch);
+			Executor.Algorithm executor = Objects.requireNonNull(Executor.getAlgorithm(input, metrics, control));
+			try {
+				output = search(executor, initial, metrics);
+				if (cache != null)
+					cache.put(input, initial, output);
+			} catch (CancellationException e) {
+				if (!control.isPastDeadline()) throw e;
+				output = Output.create(0, 0, initial, null).setPastDeadline();
+			}
+		}
+		if (cache != null)
+			output.setCacheCounts(cache.hits(), cache.misses());
 		output.setStopwatch(stopwatch.stop()).setInput(input);
-		Writer.write(input, output, false);
 		return output;
 	}
 
+	/**
+	 * @return a control stopping the search on an interrupt, or at the deadline of the input,
+	 * counted from the start of the solve
+	 */
+	private SearchControl createControl(Stopwatch stopwatch) {
+		long timeout = input.getDeadline() == 0 ? 0 : Math.max(1, input.getDeadline() - stopwatch.elapsed(TimeUnit.MILLISECONDS));
+		return SearchControl.create(timeout, listener);
+	}
+
+	/**
+	 * Runs the search with its heuristic timed, watched by the {@link SearchMonitor} until it returns
+	 */
+	private static Output search(Executor.Algorithm executor, State initial, SearchMetrics metrics) {
+		if (metrics == SearchMetrics.NONE)
+			return executor.execute(initial);
+		metrics.start();
+		SearchMonitor.get().started(metrics);
+		try {
+			return executor.execute(initial.withEvaluator(metrics::timed)).setMetrics(metrics);
+		} finally {
+			metrics.stop();
+			SearchMonitor.get().finished(metrics);
+		}
+	}
+
 	public Output output() {
 		return output;
 	}
@@ -0,0 +1,36 @@
+package npuzzle.logic;
+
+import static npuzzle.utils.Constants.*;
+
+/**
+ * Frontier of a best-first search, ordered by a {@link CostPolicy}, with a companion hash index used for duplicate detection.
+ * <p>
+ * Decrease-key is lazy: when a board is reached again with a shorter path, the new state is pushed
+ * and the index is pointed to it, while the old entry stays in place and is skipped once polled.
+ */
+interface OpenList {
+
+	/**
+	 * @return true if the state was added, false if the same board is already open with a path at least as short
+	 */
+	boolean offer(State state);
+
+	/**
+	 * @return the best open state, or null if there is none left
+	 */
+	State poll();
+
+	int size();
+
+	/**
+	 * @param kind - {@link npuzzle.utils.Constants#HEAP} or {@link npuzzle.utils.Constants#BUCKET}
+	 */
+	static OpenList create(String kind, CostPolicy policy) {
+		switch (kind) {
+			case BUCKET : return new BucketOpenList(policy);
+			case HEAP : return new HeapOpenList(policy);
+			default : throw new IllegalArgumentException("no open list " + kind);
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+package npuzzle.logic;
+
+import npuzzle.io.Output;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hash distributed A* (HDA*): every state belongs to the worker picked by its {@link State#hashCode},
+ * and only that worker keeps it in its open and closed lists. Generated children are sent to their owner
+ * through its lock-free inbox, so workers never share a data structure other than the inboxes.
+ * <p>
+ * A found goal only becomes the incumbent solution: states that cannot beat it are dropped, and the search
+ * ends once no state is left in an inbox, an open list or being expanded. With an admissible heuristic
+ * the incumbent is then optimal.
+ */
+final class ParallelSearch {
+
+	private final Worker[] workers;
+	private final SearchControl control;
+	/**
+	 * states in an inbox, an open list or being expanded; a state is counted before it is sent
+	 * and its children before it is let go, so the count cannot reach 0 while anything is left to do
+	 */
+	private final AtomicLong outstanding = new AtomicLong();
+	private final AtomicReference<State> best = new AtomicReference<>();
+	private volatile int bestCost = Integer.MAX_VALUE;
+	private volatile boolean done;
+
+	private ParallelSearch(int threads, int n, SearchControl control) {
+		this.control = control;
+		workers = new Worker[threads];
+		for (int i = 0; i < threads; i++)
+			workers[i] = new Worker(n);
+	}
+
+	static Output execute(State initial, SearchControl control) {
+		return new ParallelSearch(Runtime.getRuntime().availableProcessors(), initial.getN(), control).search(initial);
+	}
+
+	private Output search(State initial) {
+		ExecutorService pool = Executors.newFixedThreadPool(workers.length);
+
+		initial.heuristic();
+		send(initial);
+		try {
+			for (Future<?> future : pool.invokeAll(Arrays.asList(workers)))
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CancellationException)
+				throw (CancellationException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		int everInOpenSet = 0, maxNumberOfStates = 0;
+		for (Worker worker : workers) {
+			everInOpenSet += worker.everInOpenSet;
+			maxNumberOfStates += worker.maxNumberOfStates;
+		}
+		State goal = best.get();
+		return Output.create(everInOpenSet, maxNumberOfStates, initial,
+				goal == null ? null : ClosedTable.movesTo(goal, state -> ownerOf(state).bestPaths));
+	}
+
+	private Worker ownerOf(State state) {
+		int hash = state.hashCode();
+		return workers[((hash ^ hash >>> 16) & Integer.MAX_VALUE) % workers.length];
+	}
+
+	private void send(State state) {
+		outstanding.incrementAndGet();
+		ownerOf(state).inbox.add(state);
+	}
+
+	private void offerSolution(State goal) {
+		synchronized (best) {
+			if (goal.getPathSize() < bestCost) {
+				best.set(goal);
+				bestCost = goal.getPathSize();
+			}
+		}
+	}
+
+	private final class Worker implements Callable<Void> {
+
+		private final Queue<State> inbox = new ConcurrentLinkedQueue<>();
+		private final PriorityQueue<State> openList = new PriorityQueue<>(CostPolicy.ASTAR.order());
+		/**
+		 * shortest known path to every state this worker ever owned, open or closed
+		 */
+		private final ClosedTable bestPaths;
+		private int everInOpenSet;
+		private int maxNumberOfStates;
+		private long expansions;
+
+		private Worker(int n) {
+			this.bestPaths = new ClosedTable(n);
+		}
+
+		@Override public Void call() {
+			while (!done) {
+				receive();
+				State current = openList.poll();
+
+				if (current == null) {
+					if (outstanding.get() == 0)
+						done = true;
+					else {
+						control.check();
+						Thread.yield();
+					}
+				} else
+					outstanding.addAndGet(expand(current) - 1);
+			}
+			return null;
+		}
+
+		private void receive() {
+			State state;
+
+			while ((state = inbox.poll()) != null)
+				if (!open(state))
+					outstanding.decrementAndGet();
+		}
+
+		/**
+		 * @return true if the state was added to the open list
+		 */
+		private boolean open(State state) {
+			if (state.getPathSize() + state.heuristic() >= bestCost) return false;
+			if (!bestPaths.add(state)) return false;
+			openList.add(state);
+			everInOpenSet++;
+			if (bestPaths.size() > maxNumberOfStates)
+				maxNumberOfStates = bestPaths.size();
+			return true;
+		}
+
+		/**
+		 * @return number of children added to the open list of this worker, the others being sent to their owners
+		 */
+		private int expand(State current) {
+			int opened = 0;
+
+			if (bestPaths.pathSizeOf(current) < current.getPathSize()) return 0; // reached again by a shorter path
+			if (current.getPathSize() + current.heuristic() >= bestCost) return 0;
+			if (!current.isNotFinal()) {
+				offerSolution(current);
+				return 0;
+			}
+			if (++expansions % SearchControl.INTERVAL == 0)
+				control.checkpoint(current.getPathSize() + current.heuristic());
+			for (State child : current.createChildren())
+				if (ownerOf(child) == this) {
+					if (open(child)) opened++;
+				} else if (child.getPathSize() + child.heuristic() < bestCost)
+					send(child);
+			return opened;
+		}
+
+	}
+
+}
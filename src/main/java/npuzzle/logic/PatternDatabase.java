@@ -0,0 +1,367 @@
+package npuzzle.logic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static npuzzle.utils.Constants.*;
+
+/**
+ * Additive disjoint pattern databases.
+ * <p>
+ * The tiles are split into disjoint groups (patterns). For every placement of a pattern's tiles the table holds
+ * the number of moves of those tiles needed to bring them home, found by a backward breadth-first search
+ * from the final state where only moves of the pattern's own tiles are counted. The groups share no tiles
+ * and no counted moves, so the values of all patterns can be summed and the sum is still admissible.
+ * <p>
+ * Tables are generated once per pattern and kept on disk in the directory given by the
+ * {@value npuzzle.utils.Constants#PDB_DIRECTORY_PROPERTY} system property, one file per pattern:
+ * <pre>
+ * offset     size  content
+ * 0          4     magic "NPDB"
+ * 4          1     format version, currently 1
+ * 5          1     n, side of the board
+ * 6          1     k, number of tiles in the pattern
+ * 7          k     tiles of the pattern, in ranking order
+ * 7 + k      P     one unsigned byte per placement: moves needed, indexed by the rank of the tiles' positions
+ *                  as a k-permutation of the n * n cells, P = (n * n)! / (n * n - k)!
+ * </pre>
+ * Files are memory-mapped read-only: opening them costs next to nothing, their pages are shared through the
+ * OS page cache by every process solving the same size, and a single mapping is shared by every search in the JVM.
+ */
+final class PatternDatabase {
+
+	private static final byte[] MAGIC = "NPDB".getBytes(StandardCharsets.US_ASCII);
+	private static final byte FORMAT_VERSION = 1;
+	/**
+	 * magic, version, n and k; followed by the k pattern tiles
+	 */
+	private static final int HEADER_SIZE = MAGIC.length + 3;
+
+	private final int size;
+	/**
+	 * tiles of each pattern
+	 */
+	private final int[][] patterns;
+	/**
+	 * pattern a tile belongs to, -1 for the empty tile
+	 */
+	private final int[] patternOf;
+	private final ByteBuffer[] tables;
+	private final ThreadLocal<int[]> positions;
+
+	private PatternDatabase(int n, int[][] patterns, ByteBuffer[] tables) {
+		this.size = n * n;
+		this.patterns = patterns;
+		this.tables = tables;
+		this.patternOf = new int[size];
+		this.positions = ThreadLocal.withInitial(() -> new int[size]);
+		Arrays.fill(patternOf, -1);
+		for (int p = 0; p < patterns.length; p++)
+			for (int tile : patterns[p])
+				patternOf[tile] = p;
+	}
+
+	/**
+	 * Maps the tables of the default partition for {@code n}, generating and saving the missing ones first
+	 */
+	static PatternDatabase load(int n) {
+		if (n < 2 || n > PDB_MAX_N)
+			throw new IllegalArgumentException("No pattern database for n = " + n);
+
+		int[][] patterns = partition(n);
+		ByteBuffer[] tables = new ByteBuffer[patterns.length];
+		Path directory = Paths.get(System.getProperty(PDB_DIRECTORY_PROPERTY, PDB_DIRECTORY_DEFAULT));
+
+		try {
+			Files.createDirectories(directory);
+			for (int p = 0; p < patterns.length; p++) {
+				Path file = directory.resolve(fileName(n, patterns[p]));
+				if (Files.notExists(file))
+					save(directory, file, n, patterns[p], Filler.fill(n, patterns[p]));
+				tables[p] = map(file, n, patterns[p]);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot load pattern database for n = " + n, e);
+		}
+		return new PatternDatabase(n, patterns, tables);
+	}
+
+	/**
+	 * Writes to a temporary file first, so other processes never map a half written table
+	 */
+	private static void save(Path directory, Path file, int n, int[] pattern, byte[] table) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + pattern.length);
+		header.put(MAGIC).put(FORMAT_VERSION).put((byte) n).put((byte) pattern.length);
+		for (int tile : pattern) header.put((byte) tile);
+		header.flip();
+
+		Path temporary = Files.createTempFile(directory, "pdb", ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+			channel.write(header);
+			for (ByteBuffer entries = ByteBuffer.wrap(table); entries.hasRemaining(); )
+				channel.write(entries);
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @return read-only view of the table entries, checked against the expected header
+	 */
+	private static ByteBuffer map(Path file, int n, int[] pattern) throws IOException {
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		byte[] magic = new byte[MAGIC.length];
+		mapped.get(magic);
+		boolean valid = Arrays.equals(magic, MAGIC) && mapped.get() == FORMAT_VERSION
+				&& mapped.get() == n && mapped.get() == pattern.length;
+		for (int i = 0; valid && i < pattern.length; i++)
+			valid = mapped.get() == pattern[i];
+		if (!valid || mapped.remaining() != Filler.placements(n, pattern.length))
+			throw new IOException("Not a pattern database for n = " + n + ": " + file);
+		return mapped.slice();
+	}
+
+	int evaluate(Board board) {
+		int[] positions = positions(board);
+		int value = 0;
+
+		for (int p = 0; p < patterns.length; p++)
+			value += tables[p].get(rank(patterns[p], positions)) & 0xFF;
+		return value;
+	}
+
+	/**
+	 * Only the pattern of the moved tile changes, so only its entry is looked up again
+	 */
+	int evaluate(Board child, int parentValue, int tile, int from, int to) {
+		int p = patternOf[tile];
+		int[] positions = positions(child);
+		int after = tables[p].get(rank(patterns[p], positions)) & 0xFF;
+
+		positions[tile] = from;
+		return parentValue + after - (tables[p].get(rank(patterns[p], positions)) & 0xFF);
+	}
+
+	/**
+	 * @return positions of all tiles indexed by tile, in a per-thread buffer so nothing is allocated per evaluation
+	 */
+	private int[] positions(Board board) {
+		int[] positions = this.positions.get();
+
+		for (int index = 0; index < size; index++)
+			positions[board.tile(index)] = index;
+		return positions;
+	}
+
+	/**
+	 * Ranks the placement of the pattern's tiles as a k-permutation of the board cells, in [0, size! / (size - k)!)
+	 */
+	private int rank(int[] pattern, int[] positions) {
+		int index = 0, used = 0, position;
+
+		for (int i = 0; i < pattern.length; i++) {
+			position = positions[pattern[i]];
+			index = index * (size - i) + position - Integer.bitCount(used & ((1 << position) - 1));
+			used |= 1 << position;
+		}
+		return index;
+	}
+
+	/**
+	 * Splits the tiles into groups of cells that are close in the final state: 4-4 for 3x3, 6-6-3 for 4x4
+	 * and 5-5-5-5-4 for 5x5. Bigger groups give stronger tables, but for 5x5 6-tile tables do not fit in memory
+	 * while they are being generated.
+	 */
+	private static int[][] partition(int n) {
+		int[] groupSizes;
+
+		switch (n) {
+			case 2 : groupSizes = new int[] {3}; break;
+			case 3 : groupSizes = new int[] {4, 4}; break;
+			case 4 : groupSizes = new int[] {6, 6, 3}; break;
+			default : groupSizes = new int[] {5, 5, 5, 5, 4};
+		}
+
+		State finalState = State.createFinal(n);
+		List<Integer> tiles = finalState.getTiles().stream().filter(tile -> tile != NO_TILE).collect(Collectors.toList());
+		int[][] patterns = new int[groupSizes.length][];
+
+		for (int p = 0, from = 0; p < groupSizes.length; from += groupSizes[p++])
+			patterns[p] = tiles.subList(from, from + groupSizes[p]).stream().mapToInt(Integer::intValue).toArray();
+		return patterns;
+	}
+
+	private static String fileName(int n, int[] pattern) {
+		return String.format("pdb-%d-%s.pdb", n, Arrays.stream(pattern).mapToObj(String::valueOf).collect(Collectors.joining("_")));
+	}
+
+	/**
+	 * Backward breadth-first search over placements of a pattern's tiles plus the region of the empty tile.
+	 * <p>
+	 * Moving the empty tile among cells not taken by the pattern costs nothing, so instead of its exact position
+	 * a state keeps the lowest cell of the region it can reach for free. Moving a pattern tile into that region
+	 * costs one move. Layers are expanded in order of cost, so the first time a placement is reached
+	 * gives its smallest distance over all positions of the empty tile.
+	 */
+	private static final class Filler {
+
+		private static final int BITS = 5;
+		private static final int CELL = (1 << BITS) - 1;
+		private static final byte UNSEEN = (byte) 0xFF;
+
+		private final int n;
+		private final int size;
+		private final int[] pattern;
+		private final int[] neighbours;
+		private final long[] visited;
+		private final byte[] table;
+
+		private Filler(int n, int[] pattern) {
+			this.n = n;
+			this.size = n * n;
+			this.pattern = pattern;
+
+			int placements = placements(n, pattern.length);
+			this.table = new byte[placements];
+			this.visited = new long[(int) (((long) placements * size + 63) >>> 6)];
+			Arrays.fill(table, UNSEEN);
+
+			this.neighbours = new int[size];
+			for (int cell = 0; cell < size; cell++) {
+				if (cell / n != 0) neighbours[cell] |= 1 << (cell - n);
+				if (cell / n != n - 1) neighbours[cell] |= 1 << (cell + n);
+				if (cell % n != 0) neighbours[cell] |= 1 << (cell - 1);
+				if (cell % n != n - 1) neighbours[cell] |= 1 << (cell + 1);
+			}
+		}
+
+		static int placements(int n, int k) {
+			int placements = 1;
+			for (int i = 0; i < k; i++) placements *= n * n - i;
+			return placements;
+		}
+
+		static byte[] fill(int n, int[] pattern) {
+			return new Filler(n, pattern).fill();
+		}
+
+		private byte[] fill() {
+			State finalState = State.createFinal(n);
+			int[] positions = new int[pattern.length];
+
+			for (int index = 0; index < size; index++)
+				for (int i = 0; i < pattern.length; i++)
+					if (finalState.tile(index) == pattern[i])
+						positions[i] = index;
+
+			LongList layer = new LongList(), next = new LongList();
+			int occupied = occupied(positions);
+			visit(positions, lowest(region(finalState.getBlank(), occupied)), 0, layer);
+
+			for (int depth = 1; layer.size > 0; depth++) {
+				for (int s = 0; s < layer.size; s++)
+					expand(layer.values[s], positions, depth, next);
+				LongList swap = layer;
+				layer = next;
+				next = swap;
+				next.size = 0;
+			}
+			return table;
+		}
+
+		private void expand(long state, int[] positions, int depth, LongList next) {
+			for (int i = 0; i < pattern.length; i++)
+				positions[i] = (int) (state >>> (i * BITS)) & CELL;
+			int occupied = occupied(positions);
+			int region = region((int) (state >>> (pattern.length * BITS)) & CELL, occupied);
+
+			for (int i = 0; i < pattern.length; i++) {
+				int from = positions[i], targets = neighbours[from] & region;
+				while (targets != 0) {
+					int to = Integer.numberOfTrailingZeros(targets);
+					targets &= targets - 1;
+					positions[i] = to;
+					visit(positions, lowest(region(from, occupied & ~(1 << from) | 1 << to)), depth, next);
+					positions[i] = from;
+				}
+			}
+		}
+
+		private void visit(int[] positions, int blank, int depth, LongList layer) {
+			int index = rank(positions);
+			long bit = (long) index * size + blank;
+
+			if ((visited[(int) (bit >>> 6)] & 1L << bit) != 0) return;
+			visited[(int) (bit >>> 6)] |= 1L << bit;
+			if (table[index] == UNSEEN)
+				table[index] = (byte) depth;
+
+			long state = (long) blank << (pattern.length * BITS);
+			for (int i = 0; i < pattern.length; i++)
+				state |= (long) positions[i] << (i * BITS);
+			layer.add(state);
+		}
+
+		private int rank(int[] positions) {
+			int index = 0, used = 0;
+
+			for (int i = 0; i < positions.length; i++) {
+				index = index * (size - i) + positions[i] - Integer.bitCount(used & ((1 << positions[i]) - 1));
+				used |= 1 << positions[i];
+			}
+			return index;
+		}
+
+		private static int occupied(int[] positions) {
+			int occupied = 0;
+			for (int position : positions) occupied |= 1 << position;
+			return occupied;
+		}
+
+		/**
+		 * @return cells the empty tile can reach from {@code start} without moving any of the {@code occupied} ones
+		 */
+		private int region(int start, int occupied) {
+			int region = 1 << start, frontier = region, grown;
+
+			while (frontier != 0) {
+				grown = 0;
+				for (int cells = frontier; cells != 0; cells &= cells - 1)
+					grown |= neighbours[Integer.numberOfTrailingZeros(cells)];
+				frontier = grown & ~occupied & ~region;
+				region |= frontier;
+			}
+			return region;
+		}
+
+		private static int lowest(int region) {
+			return Integer.numberOfTrailingZeros(region);
+		}
+
+	}
+
+	private static final class LongList {
+
+		private long[] values = new long[1024];
+		private int size;
+
+		private void add(long value) {
+			if (size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+
+	}
+
+}
@@ -0,0 +1,19 @@
+package npuzzle.logic;
+
+/**
+ * Told how a long search is getting on, about every {@link SearchControl#INTERVAL} expansions.
+ * It may be called from the threads of parallel searches, so it should be thread-safe and return quickly.
+ *
+ * @see Npuzzle#setListener
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+	/**
+	 * @param expansions - states expanded so far
+	 * @param bestF - the largest g + h expanded so far: with an admissible heuristic, astar, uniform and ida
+	 *              have proven that no path is shorter
+	 */
+	void progress(long expansions, int bestF);
+
+}
@@ -0,0 +1,91 @@
+package npuzzle.logic;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets a search be stopped from the outside: searches call {@link #checkpoint} every {@link #INTERVAL} expansions,
+ * which throws a {@link CancellationException} once the solving thread is interrupted or the deadline has passed,
+ * and hands the progress so far to the listener.
+ * <p>
+ * Thread-safe, so that the workers of parallel searches share the control of their search and all stop together.
+ */
+final class SearchControl {
+
+	/**
+	 * expansions between two checkpoints; a power of two
+	 */
+	static final int INTERVAL = 1 << 10;
+	/**
+	 * checks only that the calling thread is not interrupted, for searches nobody watches;
+	 * shared by all of them, it keeps no count and no state
+	 */
+	static final SearchControl NONE = new SearchControl(0, null);
+
+	private final long deadline;
+	private final ProgressListener listener;
+	private final AtomicLong expansions = new AtomicLong();
+	private final AtomicInteger bestF = new AtomicInteger();
+	private volatile String stopped;
+
+	private SearchControl(long deadline, ProgressListener listener) {
+		this.deadline = deadline;
+		this.listener = listener;
+	}
+
+	/**
+	 * @param timeout - milliseconds from now the search may run for, 0 for no deadline
+	 * @param listener - told of the progress of the search, may be null
+	 */
+	static SearchControl create(long timeout, ProgressListener listener) {
+		return new SearchControl(timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0, listener);
+	}
+
+	/**
+	 * Counts another {@link #INTERVAL} expansions, then stops the search or tells the listener how far it got
+	 *
+	 * @param f - g + h of the state being expanded
+	 * @throws CancellationException if the search should stop
+	 */
+	void checkpoint(int f) {
+		if (this == NONE) {
+			check();
+			return;
+		}
+		long expanded = expansions.addAndGet(INTERVAL);
+		int best = bestF.accumulateAndGet(f, Math::max);
+
+		check();
+		if (listener != null)
+			listener.progress(expanded, best);
+	}
+
+	/**
+	 * Stops the search if it should, for threads waiting on others without expanding anything
+	 *
+	 * @throws CancellationException if the search should stop
+	 */
+	void check() {
+		if (this == NONE) {
+			if (Thread.currentThread().isInterrupted())
+				throw new CancellationException("interrupted");
+			return;
+		}
+		if (stopped == null && Thread.currentThread().isInterrupted())
+			stopped = "interrupted";
+		if (stopped == null && deadline != 0 && System.nanoTime() - deadline > 0)
+			stopped = "deadline passed";
+		if (stopped != null)
+			throw new CancellationException(stopped);
+	}
+
+	/**
+	 * @return true if the search was stopped at its deadline rather than by an interrupt
+	 */
+	boolean isPastDeadline() {
+		return deadline != 0 && System.nanoTime() - deadline > 0;
+	}
+
+}
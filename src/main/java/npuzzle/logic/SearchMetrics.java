@@ -0,0 +1,229 @@
+package npuzzle.logic;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single search: states expanded and generated, duplicates met, boards opened again by a shorter path,
+ * the largest open and closed sets, and the time spent evaluating heuristics, hashing into the closed set and
+ * in the open list, along with the bytes the solving thread allocated.
+ * <p>
+ * Counters are written by the solving thread only and may be read from any other, see {@link SearchMonitor}.
+ * Only the searches of {@link Executor} count states; the others record the time and allocation alone.
+ */
+public final class SearchMetrics {
+
+	/**
+	 * metrics that record nothing, for searches nobody watches
+	 */
+	static final SearchMetrics NONE = new SearchMetrics(false);
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	/**
+	 * {@code Thread.threadId} from Java 19 on, {@code Thread.getId} before, deprecated since; found by reflection
+	 * so the sources still build for Java 8 and without warnings on later ones
+	 */
+	private static final Method threadId = findThreadId();
+
+	private final boolean enabled;
+	private volatile long expansions, generations, duplicates, reopenings, peakFrontier, peakClosed;
+	private volatile long hashingNanos, queueNanos;
+	/**
+	 * heuristics are also evaluated by the workers of parallel searches
+	 */
+	private final LongAdder heuristicNanos = new LongAdder();
+	private volatile long started, stopped;
+	private volatile long thread = -1, allocatedAtStart = -1, allocated = -1;
+
+	private SearchMetrics(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	static SearchMetrics create() {
+		return new SearchMetrics(true);
+	}
+
+	/**
+	 * Starts the clock and the allocation count of the calling thread
+	 */
+	void start() {
+		thread = idOf(Thread.currentThread());
+		allocatedAtStart = allocatedBy(thread);
+		started = System.nanoTime();
+	}
+
+	void stop() {
+		stopped = System.nanoTime();
+		allocated = allocatedSinceStart();
+	}
+
+	/**
+	 * @return the current time less the time spent in heuristics so far if the metrics are recorded,
+	 * to be handed back to {@link #hashed} or {@link #queued}, so that heuristics evaluated in between,
+	 * as by an open list ordering a board it never saw, are not counted twice
+	 */
+	long clock() {
+		return enabled ? System.nanoTime() - heuristicNanos.sum() : 0;
+	}
+
+	void hashed(long since) {
+		if (enabled) hashingNanos += clock() - since;
+	}
+
+	void queued(long since) {
+		if (enabled) queueNanos += clock() - since;
+	}
+
+	void expanded() {
+		if (enabled) expansions++;
+	}
+
+	void generated() {
+		if (enabled) generations++;
+	}
+
+	void duplicate() {
+		if (enabled) duplicates++;
+	}
+
+	void reopened() {
+		if (enabled) reopenings++;
+	}
+
+	void sizes(int frontier, int closed) {
+		if (!enabled) return;
+		if (frontier > peakFrontier) peakFrontier = frontier;
+		if (closed > peakClosed) peakClosed = closed;
+	}
+
+	/**
+	 * @return the heuristic, also adding the time it takes to these metrics
+	 */
+	Evaluator.Heuristic timed(Evaluator.Heuristic heuristic) {
+		if (!enabled) return heuristic;
+		return new Evaluator.Heuristic() {
+			@Override public int evaluate(Board board, int n) {
+				if (stopped != 0) return heuristic.evaluate(board, n); // boards of the path, replayed once it is written
+				long since = System.nanoTime();
+				int value = heuristic.evaluate(board, n);
+				heuristicNanos.add(System.nanoTime() - since);
+				return value;
+			}
+
+			@Override public int evaluate(Board child, int n, int parentValue, int tile, int from, int to) {
+				if (stopped != 0) return heuristic.evaluate(child, n, parentValue, tile, from, to);
+				long since = System.nanoTime();
+				int value = heuristic.evaluate(child, n, parentValue, tile, from, to);
+				heuristicNanos.add(System.nanoTime() - since);
+				return value;
+			}
+		};
+	}
+
+	public long getExpansions() {
+		return expansions;
+	}
+
+	public long getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * @return children dropped because their board was already closed, or open with a path at least as short
+	 */
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return children whose board was open already, but by a longer path
+	 */
+	public long getReopenings() {
+		return reopenings;
+	}
+
+	public long getPeakFrontier() {
+		return peakFrontier;
+	}
+
+	public long getPeakClosed() {
+		return peakClosed;
+	}
+
+	public long getHeuristicNanos() {
+		return heuristicNanos.sum();
+	}
+
+	public long getHashingNanos() {
+		return hashingNanos;
+	}
+
+	public long getQueueNanos() {
+		return queueNanos;
+	}
+
+	/**
+	 * @return nanoseconds since the search started, until it stopped if it did
+	 */
+	public long getElapsedNanos() {
+		if (started == 0) return 0;
+		return (stopped == 0 ? System.nanoTime() : stopped) - started;
+	}
+
+	public double getNodesPerSecond() {
+		long elapsed = getElapsedNanos();
+		return elapsed == 0 ? 0 : expansions * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+	}
+
+	/**
+	 * @return bytes the solving thread allocated since the search started, until it stopped if it did;
+	 * -1 if the JVM does not tell, as for virtual threads, see {@link Dispatcher}
+	 */
+	public long getAllocatedBytes() {
+		return stopped == 0 ? allocatedSinceStart() : allocated;
+	}
+
+	public boolean isRunning() {
+		return started != 0 && stopped == 0;
+	}
+
+	private long allocatedSinceStart() {
+		long now = allocatedBy(thread);
+		return now < 0 || allocatedAtStart < 0 ? -1 : now - allocatedAtStart;
+	}
+
+	/**
+	 * @return id of the thread, -1 if it cannot be told
+	 */
+	private static long idOf(Thread thread) {
+		try {
+			return (Long) threadId.invoke(thread);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			return -1;
+		}
+	}
+
+	private static Method findThreadId() {
+		try {
+			return Thread.class.getMethod("threadId");
+		} catch (NoSuchMethodException e) {
+			try {
+				return Thread.class.getMethod("getId");
+			} catch (NoSuchMethodException impossible) {
+				throw new AssertionError(impossible);
+			}
+		}
+	}
+
+	private static long allocatedBy(long thread) {
+		if (thread < 0 || !(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+		return allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()
+				? allocations.getThreadAllocatedBytes(thread) : -1;
+	}
+
+}
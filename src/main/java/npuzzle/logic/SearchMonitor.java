@@ -0,0 +1,122 @@
+package npuzzle.logic;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * The one {@link SearchMonitorMBean}, registered with the platform MBean server once the first search is watched
+ */
+public final class SearchMonitor implements SearchMonitorMBean {
+
+	public static final String NAME = "npuzzle:type=SearchMonitor";
+
+	private static final SearchMonitor instance = new SearchMonitor();
+
+	private final Set<SearchMetrics> running = ConcurrentHashMap.newKeySet();
+	/**
+	 * sums over the finished searches, by the same getters as the running ones
+	 */
+	private long completed, expansions, generations, duplicates, reopenings, peakFrontier, peakClosed;
+	private long heuristicNanos, hashingNanos, queueNanos, elapsedNanos, allocatedBytes;
+	private boolean registered;
+
+	private SearchMonitor() {}
+
+	static SearchMonitor get() {
+		return instance;
+	}
+
+	synchronized void started(SearchMetrics metrics) {
+		if (!registered) register();
+		running.add(metrics);
+	}
+
+	synchronized void finished(SearchMetrics metrics) {
+		if (!running.remove(metrics)) return;
+		completed++;
+		expansions += metrics.getExpansions();
+		generations += metrics.getGenerations();
+		duplicates += metrics.getDuplicates();
+		reopenings += metrics.getReopenings();
+		peakFrontier = Math.max(peakFrontier, metrics.getPeakFrontier());
+		peakClosed = Math.max(peakClosed, metrics.getPeakClosed());
+		heuristicNanos += metrics.getHeuristicNanos();
+		hashingNanos += metrics.getHashingNanos();
+		queueNanos += metrics.getQueueNanos();
+		elapsedNanos += metrics.getElapsedNanos();
+		allocatedBytes += Math.max(0, metrics.getAllocatedBytes());
+	}
+
+	private void register() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(NAME));
+		} catch (InstanceAlreadyExistsException e) {
+			// registered by another class loader of the same JVM
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register " + NAME, e);
+		}
+		registered = true;
+	}
+
+	private long running(ToLongFunction<SearchMetrics> counter) {
+		return running.stream().mapToLong(counter).sum();
+	}
+
+	@Override public int getRunningSearches() {
+		return running.size();
+	}
+
+	@Override public synchronized long getCompletedSearches() {
+		return completed;
+	}
+
+	@Override public synchronized long getExpansions() {
+		return expansions + running(SearchMetrics::getExpansions);
+	}
+
+	@Override public synchronized long getGenerations() {
+		return generations + running(SearchMetrics::getGenerations);
+	}
+
+	@Override public synchronized long getDuplicates() {
+		return duplicates + running(SearchMetrics::getDuplicates);
+	}
+
+	@Override public synchronized long getReopenings() {
+		return reopenings + running(SearchMetrics::getReopenings);
+	}
+
+	@Override public synchronized long getPeakFrontier() {
+		return Math.max(peakFrontier, running.stream().mapToLong(SearchMetrics::getPeakFrontier).max().orElse(0));
+	}
+
+	@Override public synchronized long getPeakClosed() {
+		return Math.max(peakClosed, running.stream().mapToLong(SearchMetrics::getPeakClosed).max().orElse(0));
+	}
+
+	@Override public synchronized double getNodesPerSecond() {
+		long elapsed = elapsedNanos + running(SearchMetrics::getElapsedNanos);
+		return elapsed == 0 ? 0 : getExpansions() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+	}
+
+	@Override public synchronized long getHeuristicMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(heuristicNanos + running(SearchMetrics::getHeuristicNanos));
+	}
+
+	@Override public synchronized long getHashingMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(hashingNanos + running(SearchMetrics::getHashingNanos));
+	}
+
+	@Override public synchronized long getQueueMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(queueNanos + running(SearchMetrics::getQueueNanos));
+	}
+
+	@Override public synchronized long getAllocatedBytes() {
+		return allocatedBytes + running(metrics -> Math.max(0, metrics.getAllocatedBytes()));
+	}
+
+}
@@ -0,0 +1,46 @@
+package npuzzle.logic;
+
+/**
+ * Searches of this JVM as seen through JMX, under {@link SearchMonitor#NAME}: totals over the finished searches and the
+ * running ones so far, so long runs can be watched live from jconsole or any other JMX client
+ *
+ * @see SearchMetrics
+ */
+public interface SearchMonitorMBean {
+
+	int getRunningSearches();
+
+	long getCompletedSearches();
+
+	long getExpansions();
+
+	long getGenerations();
+
+	long getDuplicates();
+
+	long getReopenings();
+
+	/**
+	 * @return the largest open list of any search
+	 */
+	long getPeakFrontier();
+
+	/**
+	 * @return the largest closed set of any search
+	 */
+	long getPeakClosed();
+
+	/**
+	 * @return expansions over the time every search took so far
+	 */
+	double getNodesPerSecond();
+
+	long getHeuristicMillis();
+
+	long getHashingMillis();
+
+	long getQueueMillis();
+
+	long getAllocatedBytes();
+
+}
@@ -0,0 +1,208 @@
+package npuzzle.logic;
+
+import npuzzle.io.Input;
+import npuzzle.io.Output;
+import npuzzle.io.Reader;
+import npuzzle.utils.InvalidInputException;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves the puzzles sent to a local port, with the algorithm, heuristic and options of its own input,
+ * so that one warm JVM, with its heuristic tables built once per size, answers them all.
+ * <p>
+ * Every request is a line of JSON: {@code {"id": 1, "tiles": [1, 2, 3, 8, 0, 4, 7, 6, 5]}}, the tiles row by row,
+ * and the id anything the client wants back. Every response is a line of JSON too, written once the puzzle is solved,
+ * so responses of a connection come as puzzles complete, not in the order they were sent:
+ * {@code {"id": 1, "moves": "ULDR", "length": 4, "open": 9, "max": 12, "millis": 0.4}},
+ * or {@code {"id": 1, "error": "..."}} for a request that is not valid or a server too busy to take it.
+ * A connection is closed once the client shut its output and every puzzle it sent was answered.
+ * <p>
+ * Puzzles of all connections are solved by a {@link Dispatcher}, one per processor at a time,
+ * with at most {@link #QUEUE_CAPACITY} waiting.
+ */
+public class Server implements Callable<Integer> {
+
+	/**
+	 * puzzles waiting for a thread, over all connections; more are turned away as busy
+	 */
+	static final int QUEUE_CAPACITY = 1 << 10;
+
+	private final Input input;
+	private final int threads = Runtime.getRuntime().availableProcessors();
+	private final CountDownLatch bound = new CountDownLatch(1);
+	private final AtomicInteger received = new AtomicInteger();
+	/**
+	 * puzzles dispatched and not answered yet
+	 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger solved = new AtomicInteger();
+	private volatile ServerSocket socket;
+	private ExecutorService pool;
+	private ExecutorService connections;
+
+	private Server(Input input) {
+		this.input = input;
+	}
+
+	public static Server create(Input input) {
+		return new Server(input);
+	}
+
+	/**
+	 * Serves until {@link #close} is called
+	 *
+	 * @return number of puzzles solved
+	 */
+	@Override
+	public Integer call() throws IOException {
+		Reader reader = Reader.createWith(input);
+
+		if (!reader.fillInput()) {
+			bound.countDown();
+			return 0;
+		}
+		pool = Dispatcher.create(threads);
+		connections = Dispatcher.forBlocking();
+		try (ServerSocket server = new ServerSocket(input.getPort(), 0, InetAddress.getLoopbackAddress())) {
+			socket = server;
+			bound.countDown();
+			System.out.printf("Serving %s at %s%n", input.getAlgorithm(), server.getLocalSocketAddress());
+			while (true) {
+				Socket client;
+				try {
+					client = server.accept();
+				} catch (SocketException e) {
+					break; // closed
+				}
+				connections.execute(() -> serve(client, reader));
+			}
+		} finally {
+			bound.countDown();
+			connections.shutdownNow();
+			pool.shutdownNow();
+		}
+		return solved.get();
+	}
+
+	/**
+	 * @return the port the server listens on, once it does; -1 if it could not start
+	 */
+	public int port() throws InterruptedException {
+		bound.await();
+		ServerSocket server = socket;
+		return server == null ? -1 : server.getLocalPort();
+	}
+
+	/**
+	 * Stops taking connections; puzzles being solved are interrupted
+	 */
+	public void close() throws IOException {
+		ServerSocket server = socket;
+		if (server != null)
+			server.close();
+	}
+
+	private void serve(Socket client, Reader reader) {
+		Phaser pending = new Phaser(1);
+
+		try (Socket connection = client;
+			 BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+			 PrintWriter out = new PrintWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = in.readLine()) != null)
+				if (!line.trim().isEmpty())
+					dispatch(line, reader, out, pending);
+			pending.arriveAndAwaitAdvance();
+		} catch (IOException e) {
+			System.err.println("Connection lost: " + e.getMessage());
+		}
+	}
+
+	private void dispatch(String line, Reader reader, PrintWriter out, Phaser pending) {
+		Object id = null;
+
+		try {
+			JSONObject request = new JSONObject(line);
+			id = request.opt("id");
+			Input puzzle = reader.readPuzzle(rowsOf(request.getJSONArray("tiles")), received.incrementAndGet());
+			Object requestId = id;
+			if (inFlight.incrementAndGet() > threads + QUEUE_CAPACITY) {
+				inFlight.decrementAndGet();
+				respond(out, error(id, "busy: " + QUEUE_CAPACITY + " puzzles are waiting already"));
+				return;
+			}
+			pending.register();
+			pool.execute(() -> {
+				try {
+					respond(out, solve(requestId, puzzle));
+				} finally {
+					inFlight.decrementAndGet();
+					pending.arriveAndDeregister();
+				}
+			});
+		} catch (JSONException | InvalidInputException e) {
+			respond(out, error(id, e.getMessage()));
+		}
+	}
+
+	private JSONObject solve(Object id, Input puzzle) {
+		long start = System.nanoTime();
+
+		try {
+			Output output = Npuzzle.create(puzzle).solve();
+			if (output == null)
+				return error(id, "cannot solve the puzzle");
+			if (output.getMoves() != null)
+				solved.incrementAndGet();
+			return new JSONObject().put("id", id == null ? JSONObject.NULL : id)
+					.put("moves", output.getMoves() == null ? JSONObject.NULL : output.getMoves())
+					.put("length", output.getMoves() == null ? -1 : output.getMoves().length())
+					.put("open", output.getEverInOpenSet()).put("max", output.getMaxNumberOfSates())
+					.put("millis", (System.nanoTime() - start) / 1e6);
+		} catch (RuntimeException e) {
+			return error(id, e.toString());
+		}
+	}
+
+	/**
+	 * @return the size line and the rows of the tiles, as a file of a single puzzle would have them
+	 */
+	private static List<String> rowsOf(JSONArray tiles) {
+		int n = (int) Math.round(Math.sqrt(tiles.length()));
+		List<String> rows = new ArrayList<>(n + 1);
+
+		rows.add(String.valueOf(n));
+		for (int row = 0; row * n < tiles.length(); row++) {
+			StringBuilder line = new StringBuilder();
+			for (int i = row * n; i < Math.min(tiles.length(), (row + 1) * n); i++)
+				line.append(tiles.get(i)).append(' ');
+			rows.add(line.toString());
+		}
+		return rows;
+	}
+
+	private static JSONObject error(Object id, String message) {
+		return new JSONObject().put("id", id == null ? JSONObject.NULL : id).put("error", message);
+	}
+
+	private static void respond(PrintWriter out, JSONObject response) {
+		synchronized (out) {
+			out.println(response);
+			out.flush();
+		}
+	}
+
+}
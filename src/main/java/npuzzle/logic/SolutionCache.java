@@ -0,0 +1,217 @@
+package npuzzle.logic;
+
+import npuzzle.io.Input;
+import npuzzle.io.Output;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Solutions of earlier searches, keyed by the initial board and everything that decides what a search returns:
+ * algorithm, heuristic and search options.
+ * <p>
+ * Every solution is appended to a store file as a record and never rewritten; opening the store only reads
+ * the keys, into an index of where each record starts. The latest solutions are also kept decoded in a small
+ * least-recently-used map, so a repeated board costs a map lookup, and an older one a single read from the store.
+ * A record cut short by a crash is dropped when the store is opened again.
+ */
+final class SolutionCache {
+
+	/**
+	 * solutions kept decoded in memory
+	 */
+	private static final int CAPACITY = 1 << 12;
+	private static final Map<Path, SolutionCache> caches = new ConcurrentHashMap<>();
+
+	private final Path store;
+	private final Map<String, Long> index = new HashMap<>();
+	private final Map<String, Record> recent = new LinkedHashMap<String, Record>(16, 0.75f, true) {
+		@Override protected boolean removeEldestEntry(Map.Entry<String, Record> eldest) {
+			return size() > CAPACITY;
+		}
+	};
+	private long hits, misses;
+
+	private SolutionCache(Path store) {
+		this.store = store;
+	}
+
+	/**
+	 * @return the one cache of the store, shared by every puzzle solved with it
+	 */
+	static SolutionCache open(Path store) {
+		return caches.computeIfAbsent(store.toAbsolutePath().normalize(), path -> {
+			SolutionCache cache = new SolutionCache(path);
+			try {
+				cache.load();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot read the solution cache " + path, e);
+			}
+			return cache;
+		});
+	}
+
+	/**
+	 * @return the solution found for the same board and search before, null if there is none
+	 */
+	synchronized Output get(Input input, State initial) {
+		String key = keyOf(input, initial);
+		Record record = recent.get(key);
+
+		try {
+			if (record == null && index.containsKey(key)) {
+				record = read(index.get(key));
+				recent.put(key, record);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot read the solution cache " + store, e);
+		}
+		if (record == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return record.toOutput(initial);
+	}
+
+	synchronized void put(Input input, State initial, Output output) {
+		String key = keyOf(input, initial);
+		Record record = new Record(key, output);
+
+		if (index.containsKey(key)) return;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(store.toFile(), true)))) {
+			index.put(key, Files.size(store));
+			record.write(out);
+		} catch (IOException e) {
+			index.remove(key);
+			throw new UncheckedIOException("Cannot write the solution cache " + store, e);
+		}
+		recent.put(key, record);
+	}
+
+	synchronized long hits() {
+		return hits;
+	}
+
+	synchronized long misses() {
+		return misses;
+	}
+
+	private void load() throws IOException {
+		long offset = 0;
+
+		Files.createDirectories(store.getParent());
+		if (!Files.exists(store)) {
+			Files.createFile(store);
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(store)))) {
+			for (long length = Files.size(store); offset < length; ) {
+				Record record = Record.read(in);
+				index.put(record.key, offset);
+				offset += record.size();
+			}
+			return;
+		} catch (EOFException e) {
+			// the last record was cut short
+		}
+		try (FileChannel channel = FileChannel.open(store, StandardOpenOption.WRITE)) {
+			channel.truncate(offset);
+		}
+	}
+
+	private Record read(long offset) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(store.toFile(), "r")) {
+			file.seek(offset);
+			return Record.read(file);
+		}
+	}
+
+	private static String keyOf(Input input, State initial) {
+		StringBuilder key = new StringBuilder();
+
+		key.append(input.getAlgorithm()).append(' ').append(input.getHeuristic())
+				.append(" m").append(input.getMaxNodes())
+				.append(" w").append(input.getWeight())
+				.append(" t").append(input.getTimeBudget())
+				.append(' ').append(input.getOpenList())
+				.append(input.getDisk() == null ? "" : " disk")
+				.append(" n").append(initial.getN());
+		for (int word = 0; word < State.keyWidth(initial.getN()); word++)
+			key.append(' ').append(Long.toHexString(initial.keyWord(word)));
+		return key.toString();
+	}
+
+	/**
+	 * A solution as it is stored: the key, the stats of the search, and the moves as ASCII letters
+	 */
+	private static final class Record {
+
+		private final String key;
+		private final int everInOpenSet;
+		private final int maxNumberOfStates;
+		private final double bound;
+		/**
+		 * null if the search found no path
+		 */
+		private final String moves;
+
+		private Record(String key, int everInOpenSet, int maxNumberOfStates, double bound, String moves) {
+			this.key = key;
+			this.everInOpenSet = everInOpenSet;
+			this.maxNumberOfStates = maxNumberOfStates;
+			this.bound = bound;
+			this.moves = moves;
+		}
+
+		private Record(String key, Output output) {
+			this(key, output.getEverInOpenSet(), output.getMaxNumberOfSates(), output.getBound(), output.getMoves());
+		}
+
+		private static Record read(DataInput in) throws IOException {
+			String key = in.readUTF();
+			int everInOpenSet = in.readInt(), maxNumberOfStates = in.readInt();
+			double bound = in.readDouble();
+			int length = in.readInt();
+			String moves = null;
+
+			if (length >= 0) {
+				byte[] letters = new byte[length];
+				in.readFully(letters);
+				moves = new String(letters, StandardCharsets.US_ASCII);
+			}
+			return new Record(key, everInOpenSet, maxNumberOfStates, bound, moves);
+		}
+
+		private void write(DataOutputStream out) throws IOException {
+			out.writeUTF(key);
+			out.writeInt(everInOpenSet);
+			out.writeInt(maxNumberOfStates);
+			out.writeDouble(bound);
+			out.writeInt(moves == null ? -1 : moves.length());
+			if (moves != null)
+				out.write(moves.getBytes(StandardCharsets.US_ASCII));
+		}
+
+		/**
+		 * @return bytes the record takes in the store; keys are ASCII, written by {@link DataOutput#writeUTF} with a length of 2 bytes
+		 */
+		private long size() {
+			return 2 + key.length() + 2 * Integer.BYTES + Double.BYTES + Integer.BYTES + (moves == null ? 0 : moves.length());
+		}
+
+		private Output toOutput(State initial) {
+			return Output.create(everInOpenSet, maxNumberOfStates, initial, moves).setBound(bound);
+		}
+
+	}
+
+}
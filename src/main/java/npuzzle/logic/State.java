@@ -1,31 +1,80 @@
 package npuzzle.logic;
 
-import npuzzle.utils.Constants;
+import com.google.common.base.Preconditions;
 import org.apache.commons.lang3.StringUtils;
-import org.checkerframework.checker.nullness.qual.NonNull;
 
 import java.util.*;
 import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
 
 import static npuzzle.utils.Constants.NO_TILE;
 
-public class State implements Comparable<State> {
+public class State implements Board {
 
 	public static final State EMPTY = new State(Collections.emptyList(), StringUtils.EMPTY);
+	/**
+	 * boards up to this size are packed into a single long, 4 bits per tile
+	 */
+	private static final int MAX_PACKED_N = 4;
+	private static final int UNKNOWN = -1;
+	/**
+	 * directions the empty tile moves in, paired so that (move ^ 1) is the opposite one
+	 */
+	static final byte UP = 0, DOWN = 1, LEFT = 2, RIGHT = 3, NO_MOVE = -1;
+	/**
+	 * letters of the moves, indexed by direction
+	 */
+	static final String MOVES = "UDLR";
 	private final Evaluator.Heuristic evaluator;
-	private final List<Integer> tiles;
+	private final long packed;
+	private final byte[] cells;
 	private final int n;
+	private final int blank;
 	private int hashcode;
-	private int evaluation;
+	private int heuristic = UNKNOWN;
 	private int pathSize;
-	private State parent;
+	private final byte move;
 
 	private State(List<Integer> tiles, String heuristic) {
-		this.tiles = tiles;
 		this.evaluator = Evaluator.getHeuristic(heuristic);
-		this.parent = null;
+		this.move = NO_MOVE;
 		this.pathSize = 0;
 		this.n = (int) Math.sqrt(tiles.size());
+		this.blank = tiles.indexOf(NO_TILE);
+
+		if (n <= MAX_PACKED_N) {
+			long bits = 0;
+			for (int i = 0; i < tiles.size(); i++)
+				bits |= (long) tiles.get(i) << (i << 2);
+			this.packed = bits;
+			this.cells = null;
+		} else {
+			this.packed = 0;
+			this.cells = new byte[tiles.size()];
+			for (int i = 0; i < tiles.size(); i++)
+				cells[i] = (byte) tiles.get(i).intValue();
+		}
+	}
+
+	private State(State parent, long packed, byte[] cells, int blank, byte move) {
+		this.evaluator = parent.evaluator;
+		this.move = move;
+		this.pathSize = parent.pathSize + 1;
+		this.n = parent.n;
+		this.packed = packed;
+		this.cells = cells;
+		this.blank = blank;
+	}
+
+	private State(State source, Evaluator.Heuristic evaluator) {
+		this.evaluator = evaluator;
+		this.move = source.move;
+		this.pathSize = source.pathSize;
+		this.n = source.n;
+		this.packed = source.packed;
+		this.cells = source.cells;
+		this.blank = source.blank;
+		this.heuristic = source.heuristic;
 	}
 
 	public static State createFinal(int n) {
@@ -54,110 +103,224 @@ public class State implements Comparable<State> {
 		return new State(tiles, heuristic);
 	}
 
-	private State(State other) {
-		this.tiles = new ArrayList<>(other.tiles);
-		this.evaluator = other.evaluator;
-		this.parent = other.parent;
-		this.pathSize = other.pathSize;
-		this.n = other.n;
+	/**
+	 * @param key - words of a board of size n, see {@link #keyWord}
+	 * @return the board, without a heuristic
+	 */
+	static State fromKey(long[] key, int n) {
+		List<Integer> tiles = new ArrayList<>(n * n);
+
+		for (int i = 0; i < n * n; i++)
+			tiles.add(n <= MAX_PACKED_N ? (int) (key[0] >>> (i << 2)) & 0xF : (int) (key[i >>> 3] >>> ((i & 7) << 3)) & 0xFF);
+		return new State(tiles, StringUtils.EMPTY);
 	}
 
-	private static State childOf(State parent) {
-		State child = new State(parent);
-		child.parent = parent;
-		child.pathSize++;
-		return child;
+	List<State> createChildren() {
+		List<State> children = new ArrayList<>(4);
+
+		if (Utils.canMoveUp(blank, n)) // UP
+			children.add(createChild(blank - n));
+		if (Utils.canMoveDown(blank, n)) // DOWN
+			children.add(createChild(blank + n));
+		if (Utils.canMoveLeft(blank, n)) // LEFT
+			children.add(createChild(blank - 1));
+		if (Utils.canMoveRight(blank, n)) // RIGHT
+			children.add(createChild(blank + 1));
+
+		return children;
 	}
 
-	private int evaluate() {
-		if (evaluation == 0 && evaluator != null)
-			evaluation = (10 * pathSize) * evaluator.evaluate(this, n) + pathSize;
-		else if (evaluation == 0)
-			evaluation = pathSize;
-		return evaluation;
+	/**
+	 * The heuristic of the child is updated from that of its parent; run with assertions enabled
+	 * to check it against a full pass over the child.
+	 *
+	 * @param index - position of the tile that slides into the empty cell
+	 */
+	State createChild(int index) {
+		int tile = tile(index);
+		byte move = index == blank - n ? UP : index == blank + n ? DOWN : index == blank - 1 ? LEFT : RIGHT;
+		State child;
+
+		if (cells == null) {
+			long moved = packed & ~(0xFL << (blank << 2)) & ~(0xFL << (index << 2));
+			moved |= (long) tile << (blank << 2) | (long) NO_TILE << (index << 2);
+			child = new State(this, moved, null, index, move);
+		} else {
+			byte[] moved = cells.clone();
+			moved[blank] = (byte) tile;
+			moved[index] = NO_TILE;
+			child = new State(this, 0, moved, index, move);
+		}
+
+		if (evaluator != null) {
+			child.heuristic = evaluator.evaluate(child, n, heuristic(), tile, index, blank);
+			assert child.heuristic == evaluator.evaluate(child, n) : "incremental heuristic diverged";
+		}
+		return child;
 	}
 
-	Set<State> createChildren() {
-		Set<State> children = new HashSet<>();
-		int indexOfEmpty = tiles.indexOf(NO_TILE);
+	/**
+	 * @param move - direction the empty tile moves in
+	 */
+	State move(int move) {
+		switch (move) {
+			case UP : return createChild(blank - n);
+			case DOWN : return createChild(blank + n);
+			case LEFT : return createChild(blank - 1);
+			default : return createChild(blank + 1);
+		}
+	}
 
-		if (Utils.canMoveUp(indexOfEmpty, n)) // UP
-			children.add(createChild(indexOfEmpty, indexOfEmpty - n));
-		if (Utils.canMoveDown(indexOfEmpty, n)) // DOWN
-			children.add(createChild(indexOfEmpty, indexOfEmpty + n));
-		if (Utils.canMoveLeft(indexOfEmpty, n)) // LEFT
-			children.add(createChild(indexOfEmpty, indexOfEmpty - 1));
-		if (Utils.canMoveRight(indexOfEmpty, n)) // RIGHT
-			children.add(createChild(indexOfEmpty, indexOfEmpty + 1));
+	/**
+	 * @return the same board, with its heuristic, and its children, evaluated by the wrapped evaluator; itself without one
+	 */
+	State withEvaluator(UnaryOperator<Evaluator.Heuristic> wrapper) {
+		return evaluator == null ? this : new State(this, wrapper.apply(evaluator));
+	}
 
-		return children;
+	/**
+	 * @return the same board without a heuristic, so that replaying moves from it needs no tables
+	 */
+	State withoutEvaluator() {
+		return evaluator == null ? this : new State(this, null);
 	}
 
-	private State createChild(int i, int j) {
-		State child = childOf(this);
+	/**
+	 * Computed from scratch only for states without a parent, children get it updated from the parent on creation.
+	 */
+	int heuristic() {
+		if (heuristic == UNKNOWN)
+			heuristic = evaluator == null ? 0 : evaluator.evaluate(this, n);
+		return heuristic;
+	}
 
-		child.tiles.set(i, child.tiles.get(j));
-		child.tiles.set(j, NO_TILE);
+	@Override public int tile(int index) {
+		return cells == null ? (int) (packed >>> (index << 2)) & 0xF : cells[index] & 0xFF;
+	}
 
-		return child;
+	@Override public int getBlank() {
+		return blank;
 	}
 
 	public boolean isNotSolvable() {
-		int current = Utils.countInversions(this);
-		State finalState = State.createFinal(n);
-		int goal = Utils.countInversions(finalState);
-
-		if (n % 2 == 0) {
-			current += this.tiles.indexOf(NO_TILE);
-			goal += finalState.tiles.indexOf(NO_TILE);
-		}
+		return isNotSolvable(this);
+	}
 
-		return current % 2 != goal % 2;
+	/**
+	 * A board is solvable if it has the parity of the final one: no move changes it
+	 */
+	static boolean isNotSolvable(Board board) {
+		return parity(board) != Goal.of(board.getN()).parity;
 	}
 
-	List<State> collectPath() {
-		LinkedList<State> path = new LinkedList<>();
+	/**
+	 * @see Utils#parity
+	 */
+	static int parity(Board board) {
+		return Utils.parity(board);
+	}
 
-		for (State current = this; current != null; current = current.parent)
-			path.addFirst(current);
+	/**
+	 * @param moves - letters of the directions the empty tile moves in, see {@link #MOVES}
+	 * @return this board followed by every board the moves lead to
+	 */
+	public List<State> replay(String moves) {
+		List<State> path = new ArrayList<>(moves.length() + 1);
+		State current = this;
 
+		path.add(current);
+		for (int i = 0; i < moves.length(); i++)
+			path.add(current = current.move(MOVES.indexOf(moves.charAt(i))));
 		return path;
 	}
 
-	boolean isNotFinal() {
-		return !equals(Evaluator.getFinal(n));
-	}
-
 	/**
-	 * violates the contract between {@link #equals}
+	 * Turns the moves from one board to another into the moves back
 	 */
-	@Override public int compareTo(@NonNull State o) {
-		return Integer.compare(evaluate(), o.evaluate());
+	static String invert(CharSequence moves) {
+		StringBuilder inverted = new StringBuilder(moves.length());
+
+		for (int i = moves.length() - 1; i >= 0; i--)
+			inverted.append(MOVES.charAt(MOVES.indexOf(moves.charAt(i)) ^ 1));
+		return inverted.toString();
+	}
+
+	boolean isNotFinal() {
+		return !equals(Goal.of(n).state);
 	}
 
 	/**
-	 * violates the contract between {@link #compareTo}
+	 * @return true for the same board, however it was reached
 	 */
 	@Override public boolean equals(Object obj) {
-		return obj != null && obj.getClass().equals(State.class) && tiles.equals(((State) obj).tiles);
+		if (obj == null || !obj.getClass().equals(State.class)) return false;
+		State other = (State) obj;
+		return n == other.n && packed == other.packed && Arrays.equals(cells, other.cells);
 	}
 
 	@Override public int hashCode() {
-		return hashcode == 0 ? hashcode = tiles.hashCode() : hashcode;
+		if (hashcode == 0)
+			hashcode = cells == null ? Long.hashCode(packed * 0x9E3779B97F4A7C15L) : Arrays.hashCode(cells);
+		return hashcode;
 	}
 
 	@Override public String toString() {
-		return tiles.toString();
+		return getTiles().toString();
 	}
 
+	/**
+	 * @return read-only view over the packed board
+	 */
 	public List<Integer> getTiles() {
-		return tiles;
+		return new AbstractList<Integer>() {
+			@Override public Integer get(int index) {
+				return tile(Preconditions.checkElementIndex(index, size()));
+			}
+
+			@Override public int size() {
+				return n * n;
+			}
+		};
 	}
 
-	public int getN() {
+	@Override public int getN() {
 		return n;
 	}
 
+	int getPathSize() {
+		return pathSize;
+	}
+
+	Evaluator.Heuristic getEvaluator() {
+		return evaluator;
+	}
+
+	/**
+	 * @return direction the empty tile moved in to reach this state, {@link #NO_MOVE} for the initial one
+	 */
+	byte getMove() {
+		return move;
+	}
+
+	/**
+	 * @return number of longs {@link #keyWord} splits a board of size n into
+	 */
+	static int keyWidth(int n) {
+		return n <= MAX_PACKED_N ? 1 : (n * n + 7) >>> 3;
+	}
+
+	/**
+	 * The board as fixed-width words: the packed long itself, or 8 cells per word for larger boards.
+	 * A board never has a zero first word, since at most one of its first cells is empty.
+	 */
+	long keyWord(int word) {
+		if (cells == null) return packed;
+		long bits = 0;
+		for (int i = word << 3, shift = 0; i < cells.length && shift < Long.SIZE; i++, shift += Byte.SIZE)
+			bits |= (long) (cells[i] & 0xFF) << shift;
+		return bits;
+	}
+
 	private static class Utils {
 		private static int getRowOfEmpty(int indexOfEmpty, int n) {
 			return indexOfEmpty / n;
@@ -183,24 +346,34 @@ public class State implements Comparable<State> {
 			return getColumnOfEmpty(indexOfEmpty, n) != n - 1;
 		}
 
-		private static int countInversions(State state) {
-			int inversions = 0;
-			List<Integer> tiles = state.getTiles();
-
-			for (int i = 0; i < tiles.size() - 1; i++) {
-
-				int a = tiles.get(i);
-				if (a == 0)
-					continue;
+		/**
+		 * A horizontal move changes no inversion. A vertical one moves a tile past n - 1 others, which changes
+		 * the parity of the inversions on even boards only, where it also changes the row of the empty tile.
+		 *
+		 * @return 0 or 1: the parity of the inversions, plus the row of the empty tile on even boards
+		 */
+		private static int parity(Board board) {
+			int n = board.getN();
 
-				for (int j = i + 1; j < tiles.size(); j++) {
+			return (countInversions(board) + (n % 2 == 0 ? getRowOfEmpty(board.getBlank(), n) : 0)) & 1;
+		}
 
-					int b = tiles.get(j);
-					if (b != 0 && a > b)
-						inversions++;
-				}
+		/**
+		 * Counts pairs of tiles out of order from the last tile to the first, with a Fenwick tree of the tiles seen so far:
+		 * O(n^2 log n) instead of comparing every pair
+		 */
+		private static int countInversions(Board board) {
+			int size = board.getN() * board.getN(), inversions = 0;
+			int[] seen = new int[size];
+
+			for (int i = size - 1; i >= 0; i--) {
+				int tile = board.tile(i);
+				if (tile == NO_TILE) continue;
+				for (int smaller = tile - 1; smaller > 0; smaller -= smaller & -smaller)
+					inversions += seen[smaller];
+				for (int index = tile; index < size; index += index & -index)
+					seen[index]++;
 			}
-
 			return inversions;
 		}
 
@@ -0,0 +1,122 @@
+package npuzzle.logic;
+
+import java.util.*;
+
+import static npuzzle.utils.Constants.NO_TILE;
+
+/**
+ * Walking distance: the board is reduced to how many tiles of each goal row stand in each row,
+ * and the only move allowed is swapping the empty tile with a tile of a neighbouring row.
+ * The number of such moves needed to reach the goal reduction is precomputed for every reduction
+ * by a breadth-first search; the same is done for columns and both are summed.
+ * <p>
+ * It accounts for tiles getting in each other's way within rows and columns, so it is never below Manhattan,
+ * and stays admissible since vertical and horizontal moves are counted separately.
+ */
+final class WalkingDistance {
+
+	/**
+	 * bits per count of tiles; counts never exceed n
+	 */
+	private static final int BITS = 3;
+
+	private final int n;
+	private final int[] goalRow;
+	private final int[] goalColumn;
+	private final Table rows;
+	private final Table columns;
+
+	WalkingDistance(int n) {
+		Goal goal = Goal.of(n);
+
+		this.n = n;
+		this.goalRow = goal.row;
+		this.goalColumn = goal.column;
+		this.rows = new Table(n, goalRow, goal.state.getBlank() / n);
+		this.columns = new Table(n, goalColumn, goal.state.getBlank() % n);
+	}
+
+	int evaluate(Board board) {
+		long rowKey = (long) (board.getBlank() / n) << (BITS * n * n);
+		long columnKey = (long) (board.getBlank() % n) << (BITS * n * n);
+		int tile;
+
+		for (int index = 0; index < n * n; index++)
+			if ((tile = board.tile(index)) != NO_TILE) {
+				rowKey += 1L << (BITS * (index / n * n + goalRow[tile]));
+				columnKey += 1L << (BITS * (index % n * n + goalColumn[tile]));
+			}
+		return rows.get(rowKey) + columns.get(columnKey);
+	}
+
+	/**
+	 * Distances of all reductions reachable from the goal one, as sorted keys with their values.
+	 * A key holds the count of tiles of goal line g in line l at bits [BITS * (l * n + g), +BITS)
+	 * and the line of the empty tile above them.
+	 */
+	private static final class Table {
+
+		private final long[] keys;
+		private final byte[] distances;
+
+		private Table(int n, int[] goalLine, int blankLine) {
+			int[][] counts = new int[n][n];
+			for (int tile = 1; tile < n * n; tile++)
+				counts[goalLine[tile]][goalLine[tile]]++;
+
+			Map<Long, Integer> found = new HashMap<>();
+			Deque<Long> queue = new ArrayDeque<>();
+			long goal = encode(counts, blankLine, n);
+			found.put(goal, 0);
+			queue.add(goal);
+
+			while (!queue.isEmpty()) {
+				long key = queue.poll();
+				int distance = found.get(key), blank = decode(key, counts, n);
+
+				for (int line = blank - 1; line <= blank + 1; line += 2) {
+					if (line < 0 || line >= n) continue;
+					for (int group = 0; group < n; group++) {
+						if (counts[line][group] == 0) continue;
+						counts[line][group]--;
+						counts[blank][group]++;
+						long next = encode(counts, line, n);
+						if (found.putIfAbsent(next, distance + 1) == null)
+							queue.add(next);
+						counts[blank][group]--;
+						counts[line][group]++;
+					}
+				}
+			}
+
+			keys = found.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+			distances = new byte[keys.length];
+			for (int i = 0; i < keys.length; i++)
+				distances[i] = (byte) found.get(keys[i]).intValue();
+		}
+
+		private int get(long key) {
+			return distances[Arrays.binarySearch(keys, key)];
+		}
+
+		private static long encode(int[][] counts, int blankLine, int n) {
+			long key = (long) blankLine << (BITS * n * n);
+			for (int line = 0; line < n; line++)
+				for (int group = 0; group < n; group++)
+					key |= (long) counts[line][group] << (BITS * (line * n + group));
+			return key;
+		}
+
+		/**
+		 * @return line of the empty tile
+		 */
+		private static int decode(long key, int[][] counts, int n) {
+			for (int line = 0; line < n; line++)
+				for (int group = 0; group < n; group++)
+					counts[line][group] = (int) (key >>> (BITS * (line * n + group))) & ((1 << BITS) - 1);
+			return (int) (key >>> (BITS * n * n));
+		}
+
+	}
+
+}
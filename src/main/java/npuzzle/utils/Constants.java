@@ -12,26 +12,81 @@ public class Constants {
 	 */
 	public static final int NO_TILE = 0;
 
+	/**
+	 * largest supported board side: tiles of bigger boards do not fit into the byte per tile of a packed state
+	 */
+	public static final int MAX_N = 16;
+
 //	algorithms
 	public static final String GREEDY = "greedy";
 	public static final String UNIFORM = "uniform";
 	public static final String ASTAR = "astar";
+	public static final String IDA = "ida";
+	public static final String HDA = "hda";
+	public static final String BIDIRECTIONAL = "bidirectional";
+	public static final String ARA = "ara";
 
 //	heuristics
 	public static final String MANHATTAN = "manhattan";
 	public static final String HAMMING = "hamming";
 	public static final String EUCLIDEAN = "euclidean";
+	public static final String PDB = "pdb";
+	public static final String LINEAR_CONFLICT = "linear-conflict";
+	public static final String WALKING_DISTANCE = "walking-distance";
+
+//	pattern databases
+	public static final int PDB_MAX_N = 5;
+	public static final String PDB_DIRECTORY_PROPERTY = "npuzzle.pdb.dir";
+	public static final String PDB_DIRECTORY_DEFAULT = "pdb";
+
+//	walking distance tables pack tile counts of a board into a long
+	public static final int WALKING_DISTANCE_MAX_N = 4;
 
 //	options
 	public static final String ALGORITHM = "algorithm";
 	public static final String HEURISTIC = "heuristic";
 	public static final String FILE = "file";
 	public static final String RANDOM = "random";
+	public static final String BATCH = "batch";
+	public static final String ORDER = "order";
+	public static final String MAX_NODES = "max-nodes";
+	public static final String DISK = "disk";
+	public static final String TIME_BUDGET = "time-budget";
+	public static final String WEIGHT = "weight";
+	public static final String OPEN_LIST = "open-list";
+	public static final String STEPS = "steps";
+	public static final String CACHE = "cache";
+	public static final String METRICS = "metrics";
+	public static final String DEADLINE = "deadline";
+	public static final String PORT = "port";
+
+//	smallest node budget: the path and the children of a few expansions must fit in it
+	public static final int MAX_NODES_MIN = 16;
+
+//	open lists of astar and uniform
+	public static final String HEAP = "heap";
+	public static final String BUCKET = "bucket";
+
+//	orders of batch results
+	public static final String ORDER_INPUT = "input";
+	public static final String ORDER_COMPLETED = "completed";
 
 	// option descriptions
 	public static final String ALGORITHM_DESCRIPTION = "Algorithm to use.";
 	public static final String HEURISTIC_DESCRIPTION = "Heuristic function to use.";
 	public static final String FILE_DESCRIPTION = "File to use as input.";
 	public static final String RANDOM_DESCRIPTION = "Use random input.";
+	public static final String STEPS_DESCRIPTION = "Random moves from the goal a random puzzle is made with; shuffled if not given.";
+	public static final String BATCH_DESCRIPTION = "Solve every puzzle of the input, one after another.";
+	public static final String ORDER_DESCRIPTION = "Order of batch results: input or completed.";
+	public static final String MAX_NODES_DESCRIPTION = "Most states astar and uniform may keep in memory, open or expanded; runs memory-bounded A* (SMA*).";
+	public static final String WEIGHT_DESCRIPTION = "Orders astar by g + weight * h, for a path at most weight times the shortest.";
+	public static final String OPEN_LIST_DESCRIPTION = "Open list of astar and uniform: heap (default) or bucket.";
+	public static final String CACHE_DESCRIPTION = "File solutions are kept in and looked up from before searching.";
+	public static final String METRICS_DESCRIPTION = "File the metrics of every search are appended to, as a line of JSON.";
+	public static final String DEADLINE_DESCRIPTION = "Milliseconds a puzzle may be solved for; the search stops without a path once they are up.";
+	public static final String PORT_DESCRIPTION = "Serves puzzles sent as lines of JSON to this local port, 0 for any free one.";
+	public static final String TIME_BUDGET_DESCRIPTION = "Milliseconds ara may improve its first path for.";
+	public static final String DISK_DESCRIPTION = "Directory uniform keeps its breadth-first layers in; runs the search on disk.";
 
 }
@@ -9,9 +9,20 @@ public enum Error {
 	WRONG_AMOUNT("Invalid Input: wrong number of tiles. Missing: "),
 	NON_NUMERIC("Invalid Input: cannot contain non-numerals. String: "),
 	RANDOM_TOO_SMALL("Invalid Input: cannot generate puzzle with n = "),
+	SIZE_TOO_LARGE("Invalid Input: size is over max allowed: "),
+	MAX_NODES_TOO_SMALL("Invalid Input: max nodes is under the min allowed: "),
+	WEIGHT_TOO_SMALL("Invalid Input: weight is under 1: "),
 	ARG_NOT_FOUND("Invalid input: argument not found: "),
 	UNSOLVABLE("Invalid input: unsolvable puzzle"),
-	INCOMPATIBLE_HEURISTIC("Invalid input: incompatible heuristic");
+	INCOMPATIBLE_HEURISTIC("Invalid input: incompatible heuristic"),
+	INCOMPATIBLE_MAX_NODES("Invalid input: max nodes only apply to astar and uniform"),
+	INCOMPATIBLE_DISK("Invalid input: disk search only applies to uniform without max nodes"),
+	INCOMPATIBLE_TIME_BUDGET("Invalid input: time budget only applies to ara"),
+	INCOMPATIBLE_WEIGHT("Invalid input: weight only applies to astar without max nodes"),
+	INCOMPATIBLE_OPEN_LIST("Invalid input: open list only applies to astar and uniform in memory without max nodes"),
+	INCOMPATIBLE_STEPS("Invalid input: steps only apply to a single random puzzle"),
+	PORT_OUT_OF_RANGE("Invalid input: port is over 65535: "),
+	INCOMPATIBLE_PORT("Invalid input: a server reads its puzzles from its connections, not from a file, random or batch");
 
     private final String errorMsg;
 
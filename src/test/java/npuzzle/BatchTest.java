@@ -0,0 +1,20 @@
+package npuzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static npuzzle.TestUtils.testBatch;
+import static npuzzle.utils.Constants.*;
+
+class BatchTest {
+
+	private static final String MIXED = "src/test/resources/testCases/batch/mixed.txt";
+
+	@Test void manhattanAstarInInputOrder() {
+		testBatch(MIXED, ORDER_INPUT, ASTAR, MANHATTAN, 4);
+	}
+
+	@Test void linearConflictIdaAsCompleted() {
+		testBatch(MIXED, ORDER_COMPLETED, IDA, LINEAR_CONFLICT, 4);
+	}
+
+}
@@ -0,0 +1,21 @@
+package npuzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static npuzzle.TestUtils.testCached;
+import static npuzzle.utils.Constants.*;
+
+class CacheTest {
+
+	private static final String STORE = "build/cache/solutions";
+
+	@Test void linearConflictAstar() {
+		testCached("src/test/resources/testCases/fours/hard.txt", ASTAR, LINEAR_CONFLICT, STORE);
+		testCached("src/test/resources/testCases/fives/simple.txt", ASTAR, LINEAR_CONFLICT, STORE);
+	}
+
+	@Test void manhattanIda() {
+		testCached("src/test/resources/testCases/threes/hard.txt", IDA, MANHATTAN, STORE);
+	}
+
+}
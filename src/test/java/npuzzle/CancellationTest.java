@@ -0,0 +1,94 @@
+package npuzzle;
+
+import npuzzle.io.Output;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static npuzzle.TestUtils.puzzle;
+import static npuzzle.TestUtils.solve;
+import static npuzzle.utils.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CancellationTest {
+
+	private static final String HARD = "src/test/resources/testCases/fours/hard.txt";
+
+	@Test void uniformDeadline() {
+		testDeadline(UNIFORM, null, 500);
+	}
+
+	@Test void hammingIdaDeadline() {
+		testDeadline(IDA, HAMMING, 500);
+	}
+
+	@Test void hammingIdaCancelled() throws InterruptedException {
+		testCancelled(IDA, HAMMING);
+	}
+
+	@Test void hammingIdaCancelledUnwatched() throws InterruptedException {
+		testCancelledUnwatched(IDA, HAMMING, 500);
+	}
+
+	@Test void hammingHdaCancelledUnwatched() throws InterruptedException {
+		testCancelledUnwatched(HDA, HAMMING, 500);
+	}
+
+	@Test void hammingHdaCancelled() throws InterruptedException {
+		testCancelled(HDA, HAMMING);
+	}
+
+	/**
+	 * Solves with a deadline: the search must stop at it without a path
+	 *
+	 * @param h - null for uniform
+	 */
+	private static void testDeadline(String a, String h, long deadline) {
+		String heuristic = h == null ? "" : " -h " + h;
+		long start = System.nanoTime();
+		Output output = solve("-f %s -a %s%s -e %d", HARD, a, heuristic, deadline);
+
+		assertTrue(output.isPastDeadline());
+		assertNull(output.getMoves());
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < deadline + 1000);
+	}
+
+	/**
+	 * Cancels the solve once it reported some progress: its thread must be free again soon after
+	 */
+	private static void testCancelled(String a, String h) throws InterruptedException {
+		CountDownLatch progressed = new CountDownLatch(2);
+		AtomicLong expansions = new AtomicLong();
+		ExecutorService service = Executors.newSingleThreadExecutor();
+		Future<Output> future = service.submit(puzzle("-f %s -a %s -h %s", HARD, a, h).setListener((expanded, bestF) -> {
+			expansions.accumulateAndGet(expanded, Math::max);
+			progressed.countDown();
+		}));
+
+		assertTrue(progressed.await(1, TimeUnit.MINUTES));
+		assertTrue(expansions.get() > 0);
+		future.cancel(true);
+		service.shutdown();
+		assertTrue(service.awaitTermination(5, TimeUnit.SECONDS), "search kept running after it was cancelled");
+	}
+
+	/**
+	 * Cancels the solve, watched by nobody, once it ran for a while: its thread must be free again soon after
+	 */
+	private static void testCancelledUnwatched(String a, String h, long after) throws InterruptedException {
+		ExecutorService service = Executors.newSingleThreadExecutor();
+		Future<Output> future = service.submit(puzzle("-f %s -a %s -h %s", HARD, a, h));
+
+		Thread.sleep(after);
+		assertFalse(future.isDone(), "solved before it was cancelled");
+		future.cancel(true);
+		service.shutdown();
+		assertTrue(service.awaitTermination(5, TimeUnit.SECONDS), "search kept running after it was cancelled");
+	}
+
+}
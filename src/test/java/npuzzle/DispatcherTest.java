@@ -0,0 +1,105 @@
+package npuzzle;
+
+import npuzzle.io.Output;
+import npuzzle.logic.Dispatcher;
+import npuzzle.logic.Generator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static npuzzle.TestUtils.assertSolved;
+import static npuzzle.TestUtils.puzzle;
+import static npuzzle.TestUtils.testBatch;
+import static npuzzle.utils.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatcherTest {
+
+	private static final String MANY = "build/batch/many.txt";
+
+	@Test void manyTasks() throws InterruptedException {
+		testDispatcher(20_000, Runtime.getRuntime().availableProcessors());
+	}
+
+	@Test void manyThreesManhattanAstar() throws IOException {
+		Path file = Paths.get(MANY);
+		List<String> lines = Generator.boards(3, 0, 5_000, 3).map(tiles -> String.format("3%n%s %s %s%n%s %s %s%n%s %s %s%n",
+				tiles.toArray())).collect(Collectors.toList());
+
+		Files.createDirectories(file.getParent());
+		Files.write(file, lines);
+		testBatch(MANY, ORDER_COMPLETED, ASTAR, MANHATTAN, 5_000);
+	}
+
+	/**
+	 * Runs the app as from the command line: it must not return before the solutions are written
+	 */
+	@Test void appWaitsForPuzzles() {
+		PrintStream out = System.out;
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+		System.setOut(new PrintStream(written, true));
+		try {
+			App.main("-r 3 -a astar -h manhattan | -r 3 -a astar -h hamming".split(" "));
+		} finally {
+			System.setOut(out);
+		}
+		assertTrue(written.toString().contains("moves"), written.toString());
+	}
+
+	/**
+	 * Solves a puzzle on a dispatcher: its allocation is only known on a platform thread
+	 */
+	@Test void dispatchedMetrics() throws Exception {
+		ExecutorService dispatcher = Dispatcher.create(1);
+		Output output;
+
+		try {
+			output = dispatcher.submit(puzzle("-f %s -a %s -h %s -j %s", "src/test/resources/testCases/threes/hard.txt",
+					ASTAR, MANHATTAN, "build/metrics/dispatched.json")).get(1, TimeUnit.MINUTES);
+		} finally {
+			dispatcher.shutdown();
+		}
+		assertSolved(output);
+		if (Dispatcher.isVirtual())
+			assertEquals(-1, output.getMetrics().getAllocatedBytes());
+		else
+			assertTrue(output.getMetrics().getAllocatedBytes() != 0);
+	}
+
+	/**
+	 * Hands many more tasks to a dispatcher than it may run at a time: all must run, never more than allowed at once,
+	 * and each starting no later than the {@code parallelism} tasks submitted before it
+	 */
+	private static void testDispatcher(int tasks, int parallelism) throws InterruptedException {
+		ExecutorService dispatcher = Dispatcher.create(parallelism);
+		AtomicInteger running = new AtomicInteger(), most = new AtomicInteger(), started = new AtomicInteger();
+		AtomicInteger overtaken = new AtomicInteger();
+
+		for (int i = 0; i < tasks; i++) {
+			int order = i;
+			dispatcher.execute(() -> {
+				most.accumulateAndGet(running.incrementAndGet(), Math::max);
+				if (started.getAndIncrement() > order + parallelism)
+					overtaken.incrementAndGet();
+				running.decrementAndGet();
+			});
+		}
+		dispatcher.shutdown();
+		assertTrue(dispatcher.awaitTermination(1, TimeUnit.MINUTES));
+		assertEquals(tasks, started.get());
+		assertTrue(most.get() <= parallelism);
+		assertEquals(0, overtaken.get());
+	}
+
+}
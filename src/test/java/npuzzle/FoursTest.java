@@ -3,8 +3,14 @@ package npuzzle;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import static npuzzle.TestUtils.testAnytime;
+import static npuzzle.TestUtils.testBounded;
 import static npuzzle.TestUtils.testFromFile;
+import static npuzzle.TestUtils.testInBuckets;
+import static npuzzle.TestUtils.testOnDisk;
 import static npuzzle.TestUtils.testRandom;
+import static npuzzle.TestUtils.testRandomWalk;
+import static npuzzle.TestUtils.testWeighted;
 import static npuzzle.utils.Constants.*;
 
 class FoursTest {
@@ -67,6 +73,66 @@ class FoursTest {
 		testFromFile("src/test/resources/testCases/fours/hard.txt", ASTAR, MANHATTAN, 4);
 	}
 
+	@Test void linearConflictAraFile() {
+		testFromFile("src/test/resources/testCases/fours/simple.txt", ARA, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/fours/medium.txt", ARA, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/fours/hard.txt", ARA, LINEAR_CONFLICT, 1);
+	}
+
+	@Test void manhattanAraWithinBudgetFile() {
+		testAnytime("src/test/resources/testCases/fours/medium.txt", MANHATTAN, 50, 1);
+		testAnytime("src/test/resources/testCases/fours/hard.txt", MANHATTAN, 50, 1);
+	}
+
+	@Test void uniformOnDiskFile() {
+		testOnDisk("src/test/resources/testCases/fours/simple.txt", "build/layers", 1);
+	}
+
+	@Test void linearConflictWeightedAstarFile() {
+		testWeighted("src/test/resources/testCases/fours/medium.txt", LINEAR_CONFLICT, 1, 1);
+		testWeighted("src/test/resources/testCases/fours/hard.txt", LINEAR_CONFLICT, 1.5, 1);
+	}
+
+	@Test void linearConflictAstarInBucketsFile() {
+		testInBuckets("src/test/resources/testCases/fours/simple.txt", ASTAR, LINEAR_CONFLICT, 1);
+		testInBuckets("src/test/resources/testCases/fours/medium.txt", ASTAR, LINEAR_CONFLICT, 1);
+		testInBuckets("src/test/resources/testCases/fours/hard.txt", ASTAR, LINEAR_CONFLICT, 1);
+	}
+
+	@Test void linearConflictBoundedAstarFile() {
+		testBounded("src/test/resources/testCases/fours/simple.txt", ASTAR, LINEAR_CONFLICT, 5000, 1);
+		testBounded("src/test/resources/testCases/fours/medium.txt", ASTAR, LINEAR_CONFLICT, 5000, 1);
+		testBounded("src/test/resources/testCases/fours/hard.txt", ASTAR, LINEAR_CONFLICT, 5000, 1);
+	}
+
+	@Test void manhattanIdaFile() {
+		testFromFile("src/test/resources/testCases/fours/simple.txt", IDA, MANHATTAN, 1);
+		testFromFile("src/test/resources/testCases/fours/medium.txt", IDA, MANHATTAN, 1);
+		testFromFile("src/test/resources/testCases/fours/hard.txt", IDA, MANHATTAN, 2);
+	}
+
+	@Test void pdbIdaFile() {
+		testFromFile("src/test/resources/testCases/fours/simple.txt", IDA, PDB, 2);
+		testFromFile("src/test/resources/testCases/fours/medium.txt", IDA, PDB, 1);
+		testFromFile("src/test/resources/testCases/fours/hard.txt", IDA, PDB, 1);
+	}
+
+	@Test void linearConflictIdaRandomWalk() {
+		testRandomWalk(3, 4, 40, IDA, LINEAR_CONFLICT, 1);
+	}
+
+	@Test void linearConflictIdaFile() {
+		testFromFile("src/test/resources/testCases/fours/simple.txt", IDA, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/fours/medium.txt", IDA, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/fours/hard.txt", IDA, LINEAR_CONFLICT, 1);
+	}
+
+	@Test void linearConflictBidirectionalFile() {
+		testFromFile("src/test/resources/testCases/fours/simple.txt", BIDIRECTIONAL, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/fours/medium.txt", BIDIRECTIONAL, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/fours/hard.txt", BIDIRECTIONAL, LINEAR_CONFLICT, 1);
+	}
+
 
 	@Test void euclideanGreedyFile() {
 		testFromFile("src/test/resources/testCases/fours/simple.txt", GREEDY, EUCLIDEAN, 1);
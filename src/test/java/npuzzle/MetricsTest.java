@@ -0,0 +1,59 @@
+package npuzzle;
+
+import npuzzle.io.Output;
+import npuzzle.logic.SearchMetrics;
+import npuzzle.logic.SearchMonitor;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static npuzzle.TestUtils.assertSolved;
+import static npuzzle.TestUtils.solve;
+import static npuzzle.utils.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+	private static final String METRICS_FILE = "build/metrics/searches.json";
+
+	@Test void linearConflictAstar() throws IOException, JMException {
+		testMetrics("src/test/resources/testCases/fours/hard.txt", ASTAR, LINEAR_CONFLICT);
+		testMetrics("src/test/resources/testCases/fives/simple.txt", ASTAR, LINEAR_CONFLICT);
+	}
+
+	@Test void manhattanAstar() throws IOException, JMException {
+		testMetrics("src/test/resources/testCases/threes/hard.txt", ASTAR, MANHATTAN);
+	}
+
+	/**
+	 * Solves the file with its metrics recorded: they must add up with the output, be appended to the file
+	 * and be counted by the monitor
+	 */
+	private static void testMetrics(String file, String a, String h) throws IOException, JMException {
+		int lines = Files.exists(Paths.get(METRICS_FILE)) ? Files.readAllLines(Paths.get(METRICS_FILE)).size() : 0;
+		Output output = solve("-f %s -a %s -h %s -j %s", file, a, h, METRICS_FILE);
+		SearchMetrics metrics = output.getMetrics();
+
+		assertSolved(output);
+		assertTrue(metrics.getExpansions() > 0);
+		assertEquals(output.getEverInOpenSet(), metrics.getGenerations() - metrics.getDuplicates() + 1);
+		assertTrue(metrics.getPeakClosed() <= output.getMaxNumberOfSates());
+		assertTrue(metrics.getHeuristicNanos() + metrics.getHashingNanos() + metrics.getQueueNanos() <= metrics.getElapsedNanos());
+		assertTrue(metrics.getAllocatedBytes() > 0, "allocation of the solving thread not counted");
+
+		List<String> written = Files.readAllLines(Paths.get(METRICS_FILE));
+		assertEquals(lines + 1, written.size());
+		assertEquals(metrics.getExpansions(), new JSONObject(written.get(lines)).getLong("expansions"));
+
+		Object completed = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(SearchMonitor.NAME), "CompletedSearches");
+		assertTrue((Long) completed > 0);
+	}
+
+}
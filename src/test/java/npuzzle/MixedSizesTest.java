@@ -0,0 +1,26 @@
+package npuzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static npuzzle.TestUtils.testMixedSizes;
+import static npuzzle.utils.Constants.*;
+
+class MixedSizesTest {
+
+	@Test void manhattanAstar() {
+		testMixedSizes(4, 40, ASTAR, MANHATTAN, 1);
+	}
+
+	@Test void euclideanAstar() {
+		testMixedSizes(4, 20, ASTAR, EUCLIDEAN, 1);
+	}
+
+	@Test void hammingAstar() {
+		testMixedSizes(4, 16, ASTAR, HAMMING, 1);
+	}
+
+	@Test void linearConflictAstar() {
+		testMixedSizes(4, 40, ASTAR, LINEAR_CONFLICT, 1);
+	}
+
+}
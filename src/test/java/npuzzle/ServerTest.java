@@ -0,0 +1,76 @@
+package npuzzle;
+
+import npuzzle.io.Input;
+import npuzzle.logic.Generator;
+import npuzzle.logic.Server;
+import npuzzle.logic.State;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static npuzzle.utils.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTest {
+
+	@Test void manhattanAstar() throws Exception {
+		List<List<Integer>> puzzles = Generator.boards(3, 0, 100, 42).collect(Collectors.toCollection(ArrayList::new));
+
+		puzzles.add(Arrays.asList(2, 1, 3, 8, 0, 4, 7, 6, 5)); // unsolvable
+		puzzles.add(Arrays.asList(1, 2, 3, 8, 0, 4, 7, 6)); // a tile short
+		testServer(puzzles, ASTAR, MANHATTAN, 100);
+	}
+
+	@Test void linearConflictIda() throws Exception {
+		testServer(Generator.boards(4, 40, 50, 7).collect(Collectors.toList()), IDA, LINEAR_CONFLICT, 50);
+	}
+
+	/**
+	 * Sends the puzzles, then a line that is not a puzzle, to a server on a free port: every line must be answered,
+	 * the puzzles with moves that solve them, the others with an error
+	 */
+	private static void testServer(List<List<Integer>> puzzles, String a, String h, int solvable) throws Exception {
+		Server server = Server.create(new Input(String.format("-a %s -h %s -p 0", a, h).split(" ")));
+		ExecutorService service = Executors.newSingleThreadExecutor();
+		Future<Integer> serving = service.submit(server);
+		Map<Integer, String> responses = new HashMap<>();
+
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port());
+			 PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+			 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+			for (int id = 0; id < puzzles.size(); id++)
+				out.println(new JSONObject().put("id", id).put("tiles", puzzles.get(id)));
+			out.println("not a puzzle");
+			socket.shutdownOutput();
+			for (String line; (line = in.readLine()) != null; ) {
+				JSONObject response = new JSONObject(line);
+				responses.put(response.isNull("id") ? -1 : response.getInt("id"), line);
+			}
+		} finally {
+			server.close();
+		}
+		assertEquals(puzzles.size() + 1, responses.size());
+		assertEquals(solvable, assertDoesNotThrow(() -> serving.get(1, TimeUnit.MINUTES)).intValue());
+		service.shutdown();
+
+		for (int id = 0; id < puzzles.size(); id++) {
+			JSONObject response = new JSONObject(responses.get(id));
+			if (response.has("error")) continue;
+			State initial = State.createFrom(puzzles.get(id), h);
+			List<State> path = initial.replay(response.getString("moves"));
+			assertEquals(State.createFinal(initial.getN()), path.get(path.size() - 1));
+		}
+		assertEquals(puzzles.size() - solvable, responses.values().stream().filter(line -> line.contains("\"error\"")).count() - 1);
+	}
+
+}
@@ -1,9 +1,15 @@
 package npuzzle;
 
+import npuzzle.logic.Generator;
+import npuzzle.logic.State;
 import npuzzle.utils.InvalidInputException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
+import static npuzzle.utils.Constants.MANHATTAN;
+
 class SolvabilityTest {
 
     @Test
@@ -36,4 +42,20 @@ class SolvabilityTest {
         Assertions.assertDoesNotThrow(() -> TestUtils.testSolvability("src/test/resources/testCases/validation/solvable/five.txt"));
     }
 
+    @Test
+    void randomWalksSolvable() {
+        for (int n = 2; n <= 6; n++)
+            Assertions.assertEquals(0, Generator.boards(n, 100, 10000, n).filter(SolvabilityTest::isNotSolvable).count());
+    }
+
+    @Test
+    void shufflesSolvable() {
+        for (int n = 2; n <= 6; n++)
+            Assertions.assertEquals(0, Generator.boards(n, 0, 10000, n).filter(SolvabilityTest::isNotSolvable).count());
+    }
+
+    private static boolean isNotSolvable(List<Integer> tiles) {
+        return State.createFrom(tiles, MANHATTAN).isNotSolvable();
+    }
+
 }
@@ -4,8 +4,11 @@ import npuzzle.io.Input;
 import npuzzle.io.Output;
 import npuzzle.io.Reader;
 import npuzzle.io.Writer;
+import npuzzle.logic.Batch;
+import npuzzle.logic.Generator;
 import npuzzle.logic.Npuzzle;
 import npuzzle.logic.State;
+import npuzzle.utils.Constants;
 import npuzzle.utils.Error;
 import npuzzle.utils.InvalidInputException;
 import org.json.JSONObject;
@@ -62,18 +65,118 @@ class TestUtils {
         runTest(1, minTotalTimeout, args);
     }
 
+    /**
+     * @param format - args of the puzzle, formatted with the values
+     */
+    static Npuzzle puzzle(String format, Object... values) {
+        return Npuzzle.create(new Input(String.format(format, values).split(" ")));
+    }
+
+    /**
+     * Solves the puzzle of the args on the calling thread
+     */
+    static Output solve(String format, Object... values) {
+        return puzzle(format, values).call();
+    }
+
+    static void assertSolved(Output output) {
+        assertEquals(finals.get(output.getInput().getN()), output.getFinal(), wrongFinal(output.getInput(), output));
+    }
+
+    static void testBounded(String file, String a, String h, int maxNodes, long minTotalTimeout) {
+        String[] args = String.format("-f %s -a %s -h %s -m %d", file, a, h, maxNodes).split(" ");
+        runTest(1, minTotalTimeout, args);
+    }
+
+    static void testWeighted(String file, String h, double weight, long minTotalTimeout) {
+        String[] args = String.format("-f %s -a %s -h %s -w %s", file, Constants.ASTAR, h, weight).split(" ");
+        runTest(1, minTotalTimeout, args);
+    }
+
+    /**
+     * @param h - null for uniform
+     */
+    static void testInBuckets(String file, String a, String h, long minTotalTimeout) {
+        String heuristic = h == null ? "" : " -h " + h;
+        String[] args = String.format("-f %s -a %s%s -l %s", file, a, heuristic, Constants.BUCKET).split(" ");
+        runTest(1, minTotalTimeout, args);
+    }
+
+    static void testAnytime(String file, String h, long timeBudget, long minTotalTimeout) {
+        String[] args = String.format("-f %s -a %s -h %s -t %d", file, Constants.ARA, h, timeBudget).split(" ");
+        runTest(1, minTotalTimeout, args);
+    }
+
+    static void testOnDisk(String file, String directory, long minTotalTimeout) {
+        String[] args = String.format("-f %s -a %s -d %s", file, Constants.UNIFORM, directory).split(" ");
+        runTest(1, minTotalTimeout, args);
+    }
+
     static void testRandom(int times, int n, String a, String h, long minTotalTimeout) {
         String[] args = String.format("-r %d -a %s -h %s", n, a, h).split(" ");
         runTest(times, minTotalTimeout, args);
     }
 
+    static void testRandomWalk(int times, int n, int steps, String a, String h, long minTotalTimeout) {
+        String[] args = String.format("-r %d -s %d -a %s -h %s", n, steps, a, h).split(" ");
+        runTest(times, minTotalTimeout, args);
+    }
+
+    /**
+     * Solves boards of every size at once, each size starting on its own thread
+     */
+    static void testMixedSizes(int times, int steps, String a, String h, long minTotalTimeout) {
+        List<Npuzzle> puzzles = new ArrayList<>();
+
+        for (int i = 0; i < times; i++)
+            for (int n : finals.keySet())
+                puzzles.add(Npuzzle.create(new Input(String.format("-r %d -s %d -a %s -h %s", n, steps, a, h).split(" "))));
+        runTest(puzzles, minTotalTimeout);
+    }
+
+    /**
+     * Solves random walks with the algorithm and with IDA*: both must find paths of the same, shortest, length
+     */
+    static void testOptimal(int times, int n, int steps, String a, String h) {
+        Generator.boards(n, steps, times, n).forEach(tiles -> {
+            Output expected = Npuzzle.create(Input.create(tiles, n, Constants.IDA, h)).call();
+            Output output = Npuzzle.create(Input.create(tiles, n, a, h)).call();
+
+            assertEquals(finals.get(n), output.getFinal(), wrongFinal(output.getInput(), output));
+            assertEquals(expected.getMoves().length(), output.getMoves().length(), tiles.toString());
+        });
+    }
+
+    static void testBatch(String file, String order, String a, String h, int solved) {
+        String[] args = String.format("-b -f %s -o %s -a %s -h %s", file, order, a, h).split(" ");
+        assertEquals(solved, assertDoesNotThrow(() -> Batch.create(new Input(args)).call()).intValue());
+    }
+
+    /**
+     * Solves the file twice with the same store: the second time must come from the cache
+     */
+    static void testCached(String file, String a, String h, String store) {
+        String[] args = String.format("-f %s -a %s -h %s -c %s", file, a, h, store).split(" ");
+        Output first = Npuzzle.create(new Input(args)).call();
+        Output second = Npuzzle.create(new Input(args)).call();
+
+        assertEquals(finals.get(first.getInput().getN()), second.getFinal());
+        assertEquals(first.getMoves(), second.getMoves());
+        assertEquals(first.getCacheHits() + 1, second.getCacheHits());
+        assertEquals(first.getCacheMisses(), second.getCacheMisses());
+    }
+
     private static void runTest(int times, long minTotalTimeout, String... args) {
         List<Npuzzle> puzzles = new ArrayList<>();
-        List<Executable> list = new ArrayList<>();
 
         for (int i = 0; i < times; i++) puzzles.add(Npuzzle.create(new Input(args)));
+        runTest(puzzles, minTotalTimeout);
+    }
+
+    private static void runTest(List<Npuzzle> puzzles, long minTotalTimeout) {
+        List<Executable> list = new ArrayList<>();
 
-        ExecutorService service = Executors.newFixedThreadPool(times);
+        ExecutorService service = Executors.newFixedThreadPool(puzzles.size());
         try {
             for (Future<Output> future : service.invokeAll(puzzles, minTotalTimeout, TimeUnit.MINUTES)) {
                 Output output = future.get();
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import static npuzzle.TestUtils.testFromFile;
+import static npuzzle.TestUtils.testInBuckets;
+import static npuzzle.TestUtils.testOnDisk;
+import static npuzzle.TestUtils.testOptimal;
 import static npuzzle.TestUtils.testRandom;
 import static npuzzle.utils.Constants.*;
 
@@ -21,6 +24,10 @@ class ThreesTest {
 		testRandom(3,3, ASTAR, MANHATTAN, 1);
 	}
 
+	@Test void manhattanIda() {
+		testRandom(3,3, IDA, MANHATTAN, 1);
+	}
+
 
 	@Test void euclideanGreedy() {
 		testRandom(3,3, GREEDY, EUCLIDEAN, 1);
@@ -54,6 +61,18 @@ class ThreesTest {
 		testFromFile("src/test/resources/testCases/threes/hard.txt", GREEDY, MANHATTAN, 1);
 	}
 
+	@Test void uniformOnDiskFile() {
+		testOnDisk("src/test/resources/testCases/threes/simple.txt", "build/layers", 1);
+		testOnDisk("src/test/resources/testCases/threes/medium.txt", "build/layers", 1);
+		testOnDisk("src/test/resources/testCases/threes/hard.txt", "build/layers", 1);
+	}
+
+	@Test void uniformInBucketsFile() {
+		testInBuckets("src/test/resources/testCases/threes/simple.txt", UNIFORM, null, 1);
+		testInBuckets("src/test/resources/testCases/threes/medium.txt", UNIFORM, null, 1);
+		testInBuckets("src/test/resources/testCases/threes/hard.txt", UNIFORM, null, 1);
+	}
+
 	@Test void manhattanUniformFile() {
 		testFromFile("src/test/resources/testCases/threes/simple.txt", UNIFORM, MANHATTAN, 1);
 		testFromFile("src/test/resources/testCases/threes/medium.txt", UNIFORM, MANHATTAN, 2);
@@ -66,6 +85,46 @@ class ThreesTest {
 //		testFromFile("src/test/resources/testCases/threes/hard.txt", ASTAR, MANHATTAN, 4);
 	}
 
+	@Test void manhattanIdaFile() {
+		testFromFile("src/test/resources/testCases/threes/simple.txt", IDA, MANHATTAN, 1);
+		testFromFile("src/test/resources/testCases/threes/medium.txt", IDA, MANHATTAN, 1);
+		testFromFile("src/test/resources/testCases/threes/hard.txt", IDA, MANHATTAN, 1);
+	}
+
+	@Test void pdbIdaFile() {
+		testFromFile("src/test/resources/testCases/threes/simple.txt", IDA, PDB, 1);
+		testFromFile("src/test/resources/testCases/threes/medium.txt", IDA, PDB, 1);
+		testFromFile("src/test/resources/testCases/threes/hard.txt", IDA, PDB, 1);
+	}
+
+	@Test void linearConflictIdaFile() {
+		testFromFile("src/test/resources/testCases/threes/simple.txt", IDA, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/threes/medium.txt", IDA, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/threes/hard.txt", IDA, LINEAR_CONFLICT, 1);
+	}
+
+	@Test void walkingDistanceIdaFile() {
+		testFromFile("src/test/resources/testCases/threes/simple.txt", IDA, WALKING_DISTANCE, 1);
+		testFromFile("src/test/resources/testCases/threes/medium.txt", IDA, WALKING_DISTANCE, 1);
+		testFromFile("src/test/resources/testCases/threes/hard.txt", IDA, WALKING_DISTANCE, 1);
+	}
+
+	@Test void linearConflictHdaFile() {
+		testFromFile("src/test/resources/testCases/threes/simple.txt", HDA, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/threes/medium.txt", HDA, LINEAR_CONFLICT, 1);
+		testFromFile("src/test/resources/testCases/threes/hard.txt", HDA, LINEAR_CONFLICT, 1);
+	}
+
+	@Test void linearConflictHdaOptimal() {
+		testOptimal(200, 3, 40, HDA, LINEAR_CONFLICT);
+	}
+
+	@Test void manhattanBidirectionalFile() {
+		testFromFile("src/test/resources/testCases/threes/simple.txt", BIDIRECTIONAL, MANHATTAN, 1);
+		testFromFile("src/test/resources/testCases/threes/medium.txt", BIDIRECTIONAL, MANHATTAN, 1);
+		testFromFile("src/test/resources/testCases/threes/hard.txt", BIDIRECTIONAL, MANHATTAN, 1);
+	}
+
 
 	@Test void euclideanGreedyFile() {
 		testFromFile("src/test/resources/testCases/threes/simple.txt", GREEDY, EUCLIDEAN, 1);